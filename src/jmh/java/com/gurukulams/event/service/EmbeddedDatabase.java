@@ -0,0 +1,118 @@
+package com.gurukulams.event.service;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * In-memory H2 database with the db_upgrades migrations applied, and
+ * the PostgreSQL transaction id functions of the outbox as aliases.
+ */
+public final class EmbeddedDatabase {
+
+    /**
+     * Migrations.
+     */
+    private static final Path DB_UPGRADES =
+            Path.of("src/main/resources/db/db_upgrades");
+
+    /**
+     * PostgreSQL functions and the methods standing in for them.
+     */
+    private static final List<String> ALIASES = List.of(
+            "txid_current", "txidCurrent",
+            "txid_current_snapshot", "txidCurrentSnapshot",
+            "txid_snapshot_xmin", "txidSnapshotXmin");
+
+    private EmbeddedDatabase() {
+    }
+
+    /**
+     * Stands in for {@code txid_current()}. All changes share one
+     * transaction id, so the outbox orders them by sequence.
+     *
+     * @return the transaction id
+     */
+    public static long txidCurrent() {
+        return 1;
+    }
+
+    /**
+     * Stands in for {@code txid_current_snapshot()}.
+     *
+     * @return the snapshot
+     */
+    public static String txidCurrentSnapshot() {
+        return "";
+    }
+
+    /**
+     * Stands in for {@code txid_snapshot_xmin(snapshot)}. H2 hides
+     * uncommitted changes, so every transaction id is taken as finished.
+     *
+     * @param snapshot the snapshot
+     * @return the oldest transaction in progress
+     */
+    public static long txidSnapshotXmin(final String snapshot) {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Creates a new private database.
+     *
+     * @return the data source
+     */
+    static JdbcDataSource create() throws SQLException, IOException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:events-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+                + ";DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        List<Path> upgrades;
+        try (Stream<Path> files = Files.list(DB_UPGRADES)) {
+            upgrades = files.sorted(Comparator.comparingInt(
+                    EmbeddedDatabase::version)).toList();
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (Path upgrade : upgrades) {
+                for (String sql : Files.readString(upgrade).split(";")) {
+                    if (!sql.isBlank()) {
+                        statement.execute(sql);
+                    }
+                }
+            }
+            for (int i = 0; i < ALIASES.size(); i += 2) {
+                statement.execute("create alias " + ALIASES.get(i)
+                        + " for '" + EmbeddedDatabase.class.getName() + "."
+                        + ALIASES.get(i + 1) + "'");
+            }
+        }
+        return dataSource;
+    }
+
+    /**
+     * Drops the database.
+     *
+     * @param dataSource the data source
+     */
+    static void shutdown(final JdbcDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("shutdown");
+        }
+    }
+
+    private static int version(final Path upgrade) {
+        String name = upgrade.getFileName().toString();
+        return Integer.parseInt(name.substring(1, name.indexOf("__")));
+    }
+}
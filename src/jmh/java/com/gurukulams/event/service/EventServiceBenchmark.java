@@ -0,0 +1,210 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.DataManager;
+import com.gurukulams.event.model.Event;
+import jakarta.validation.Validation;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks EventService against in-memory H2 with the db_upgrades
+ * migrations applied.
+ *
+ * Run with {@code ./mvnw -Pjmh test-compile exec:exec}, which reports
+ * throughput and, through the gc profiler, allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventServiceBenchmark {
+
+    /**
+     * Owner of seeded events.
+     */
+    private static final String OWNER = "owner";
+
+    /**
+     * Number of seeded events.
+     */
+    @Param({"1000"})
+    private int events;
+
+    /**
+     * Number of seeded categories.
+     */
+    @Param({"20"})
+    private int categories;
+
+    /**
+     * Number of seeded locales, 1 to 4.
+     */
+    @Param({"3"})
+    private int locales;
+
+    /**
+     * Number of seeded learners.
+     */
+    @Param({"200"})
+    private int learners;
+
+    private JdbcDataSource dataSource;
+    private EventService eventService;
+    private List<UUID> eventIds;
+    private List<UUID> startedEventIds;
+    private List<Locale> localeList;
+    private List<String> categoryList;
+    private List<String> learnerList;
+    private final AtomicLong registrations = new AtomicLong();
+
+    /**
+     * Boots H2, applies migrations and seeds events.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        dataSource = EmbeddedDatabase.create();
+
+        eventService = new EventService(dataSource, DataManager.getManager(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+
+        Random random = new Random(events);
+        localeList = Stream.of(Locale.GERMAN, Locale.FRENCH,
+                        Locale.forLanguageTag("ta"), Locale.JAPANESE)
+                .limit(locales).toList();
+        categoryList = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            categoryList.add("c" + i);
+        }
+        learnerList = new ArrayList<>();
+        for (int i = 0; i < learners; i++) {
+            learnerList.add("learner" + i);
+        }
+
+        eventIds = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            Event event = eventService.create(
+                    List.of(pick(random, categoryList),
+                            pick(random, categoryList)).stream()
+                            .distinct().toList(),
+                    List.of("t" + (i % 10)),
+                    OWNER,
+                    pick(random, localeList),
+                    anEvent(LocalDateTime.now()
+                            .plusMinutes(60 + random.nextInt(60 * 24 * 10))));
+            eventIds.add(event.id());
+            eventService.register(pick(random, learnerList), event.id());
+        }
+
+        startedEventIds = new ArrayList<>();
+        for (int i = 0; i < Math.min(events, 10); i++) {
+            Event event = eventService.create(List.of(), List.of(), OWNER,
+                    null, anEvent(LocalDateTime.now().plusMinutes(5)));
+            eventService.start(OWNER, event.id(),
+                    new URL("https://meet.gurukulams.com/" + event.id()));
+            for (String learner : learnerList) {
+                eventService.register(learner, event.id());
+            }
+            startedEventIds.add(event.id());
+        }
+    }
+
+    /**
+     * Drops the database.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        EmbeddedDatabase.shutdown(dataSource);
+    }
+
+    @Benchmark
+    public Event create() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return eventService.create(List.of(pick(random, categoryList)),
+                List.of("t1"), OWNER, null,
+                anEvent(LocalDateTime.now().plusDays(1)));
+    }
+
+    @Benchmark
+    public Optional<Event> read() throws SQLException {
+        return eventService.read(OWNER,
+                pick(ThreadLocalRandom.current(), eventIds), null);
+    }
+
+    @Benchmark
+    public Optional<Event> readLocalized() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return eventService.read(OWNER, pick(random, eventIds),
+                pick(random, localeList));
+    }
+
+    @Benchmark
+    public List<Event> listUserEvents() throws SQLException {
+        return eventService.list(
+                pick(ThreadLocalRandom.current(), learnerList), null);
+    }
+
+    @Benchmark
+    public List<Event> listByCategories() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return eventService.list(OWNER, pick(random, localeList),
+                List.of(pick(random, categoryList)));
+    }
+
+    @Benchmark
+    public RegistrationStatus register() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Within the 40 characters of user_handle
+        RegistrationStatus status = eventService.register(
+                "l" + registrations.incrementAndGet(),
+                pick(random, eventIds));
+        if (status != RegistrationStatus.REGISTERED) {
+            throw new IllegalStateException("Not registered: " + status);
+        }
+        return status;
+    }
+
+    @Benchmark
+    public String join() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return eventService.join(pick(random, learnerList),
+                pick(random, startedEventIds));
+    }
+
+    private static <T> T pick(final Random random, final List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static Event anEvent(final LocalDateTime eventDate) {
+        return new Event(UUID.randomUUID(), "BenchEvent", "BenchDescription",
+                eventDate, null, null, null, null);
+    }
+}
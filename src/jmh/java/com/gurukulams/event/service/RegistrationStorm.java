@@ -0,0 +1,234 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.DataManager;
+import com.gurukulams.event.model.Event;
+import jakarta.validation.Validation;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.net.URL;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test of learners registering for and joining events within seconds
+ * of their start, each learner on its own virtual thread, against
+ * in-memory H2.
+ *
+ * Run with {@code ./mvnw -Pjmh test-compile exec:exec@storm}, optionally
+ * passing {@code -Dstorm.args="seed=7 learners=10000"}. The same seed
+ * replays the same learners, events and operations.
+ *
+ * <ul>
+ *     <li>seed - seed of the scenario (42)</li>
+ *     <li>events - number of events starting (10)</li>
+ *     <li>learners - number of learners (5000)</li>
+ *     <li>rampMillis - window over which learners arrive (2000)</li>
+ *     <li>joins - joins per learner after registering (3)</li>
+ *     <li>registerOnly - percent of learners that never join (10)</li>
+ * </ul>
+ */
+public final class RegistrationStorm {
+
+    /**
+     * Owner of the events.
+     */
+    private static final String OWNER = "owner";
+
+    /**
+     * Operations measured.
+     */
+    private enum Operation { REGISTER, JOIN }
+
+    /**
+     * Latencies by operation.
+     */
+    private final Map<Operation, LatencyHistogram> latencies =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Errors by operation and exception type.
+     */
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private final long seed;
+    private final int events;
+    private final int learners;
+    private final int rampMillis;
+    private final int joins;
+    private final int registerOnly;
+
+    private RegistrationStorm(final Map<String, String> args) {
+        this.seed = Long.parseLong(args.getOrDefault("seed", "42"));
+        this.events = Integer.parseInt(args.getOrDefault("events", "10"));
+        this.learners = Integer.parseInt(
+                args.getOrDefault("learners", "5000"));
+        this.rampMillis = Integer.parseInt(
+                args.getOrDefault("rampMillis", "2000"));
+        this.joins = Integer.parseInt(args.getOrDefault("joins", "3"));
+        this.registerOnly = Integer.parseInt(
+                args.getOrDefault("registerOnly", "10"));
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Runs the storm.
+     *
+     * @param args key=value settings
+     */
+    public static void main(final String[] args) throws Exception {
+        Map<String, String> settings = new ConcurrentHashMap<>();
+        for (String arg : args) {
+            for (String setting : arg.trim().split("\\s+")) {
+                int separator = setting.indexOf('=');
+                if (separator > 0) {
+                    settings.put(setting.substring(0, separator),
+                            setting.substring(separator + 1));
+                }
+            }
+        }
+        new RegistrationStorm(settings).run();
+    }
+
+    private void run() throws Exception {
+        JdbcDataSource dataSource = EmbeddedDatabase.create();
+        try {
+            EventService eventService = new EventService(dataSource,
+                    DataManager.getManager(),
+                    Validation.buildDefaultValidatorFactory().getValidator());
+            List<UUID> eventIds = startEvents(eventService);
+            List<Learner> plan = plan(eventIds);
+
+            long started = System.nanoTime();
+            try (ExecutorService executor =
+                         Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Learner learner : plan) {
+                    executor.submit(() -> storm(eventService, learner,
+                            started));
+                }
+            }
+            report(Duration.ofNanos(System.nanoTime() - started));
+        } finally {
+            EmbeddedDatabase.shutdown(dataSource);
+        }
+    }
+
+    private List<UUID> startEvents(final EventService eventService)
+            throws Exception {
+        List<UUID> eventIds = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            Event event = eventService.create(List.of(), List.of(), OWNER,
+                    null, new Event(UUID.randomUUID(), "StormEvent",
+                            "StormDescription",
+                            LocalDateTime.now().plusMinutes(5),
+                            null, null, null, null));
+            eventService.start(OWNER, event.id(),
+                    new URL("https://meet.gurukulams.com/" + event.id()));
+            eventIds.add(event.id());
+        }
+        return eventIds;
+    }
+
+    /**
+     * Plans the learners from the seed.
+     */
+    private List<Learner> plan(final List<UUID> eventIds) {
+        Random random = new Random(seed);
+        List<Learner> plan = new ArrayList<>(learners);
+        for (int i = 0; i < learners; i++) {
+            plan.add(new Learner("learner" + i,
+                    eventIds.get(random.nextInt(eventIds.size())),
+                    random.nextInt(Math.max(1, rampMillis)),
+                    random.nextInt(100) < registerOnly ? 0 : joins));
+        }
+        return plan;
+    }
+
+    private void storm(final EventService eventService,
+                       final Learner learner,
+                       final long started) {
+        try {
+            long wait = learner.arrivalMillis()
+                    - TimeUnit.NANOSECONDS.toMillis(
+                            System.nanoTime() - started);
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (measure(Operation.REGISTER, () -> eventService
+                .register(learner.userName(), learner.eventId()))) {
+            for (int i = 0; i < learner.joins(); i++) {
+                measure(Operation.JOIN, () -> eventService
+                        .join(learner.userName(), learner.eventId()));
+            }
+        }
+    }
+
+    private boolean measure(final Operation operation, final Call call) {
+        long start = System.nanoTime();
+        try {
+            call.call();
+            latencies.get(operation).record(System.nanoTime() - start);
+            return true;
+        } catch (Exception e) {
+            errors.computeIfAbsent(operation + " "
+                    + e.getClass().getSimpleName(), k -> new LongAdder())
+                    .increment();
+            return false;
+        }
+    }
+
+    private void report(final Duration elapsed) {
+        System.out.printf("Storm seed=%d events=%d learners=%d rampMillis=%d"
+                        + " joins=%d registerOnly=%d%% in %d ms%n",
+                seed, events, learners, rampMillis, joins, registerOnly,
+                elapsed.toMillis());
+        System.out.printf("%-10s %10s %10s %10s %10s %10s%n", "operation",
+                "ops", "ops/s", "p50 us", "p99 us", "p999 us");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            long count = histogram.count();
+            System.out.printf("%-10s %10d %10.1f %10d %10d %10d%n",
+                    operation, count,
+                    count * 1_000.0 / Math.max(1, elapsed.toMillis()),
+                    histogram.percentile(50), histogram.percentile(99),
+                    histogram.percentile(99.9));
+        }
+        errors.forEach((error, count) -> System.out.printf(
+                "error %-40s %10d%n", error, count.sum()));
+    }
+
+    /**
+     * Measured call.
+     */
+    @FunctionalInterface
+    private interface Call {
+        Object call() throws Exception;
+    }
+
+    /**
+     * Planned Learner.
+     *
+     * @param userName      the user name
+     * @param eventId       the event
+     * @param arrivalMillis when the learner arrives since the start
+     * @param joins         number of joins after registering
+     */
+    private record Learner(String userName, UUID eventId,
+                           int arrivalMillis, int joins) {
+    }
+}
@@ -0,0 +1,373 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.model.Event;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non blocking facade of {@link EventService}.
+ * Each call runs on its own virtual thread, at most a given number of
+ * them against the database at once, so the bound should not exceed the
+ * connections of the DataSource. Futures fail with the exception of the
+ * call, or with a {@link java.util.concurrent.TimeoutException} past the
+ * timeout. Timing out or cancelling a future interrupts its call.
+ */
+public final class AsyncEventService implements AutoCloseable {
+
+    /**
+     * Maximum number of ids read by one call of a batch read.
+     */
+    private static final int READ_BATCH_SIZE = 100;
+
+    /**
+     * Event Service.
+     */
+    private final EventService eventService;
+
+    /**
+     * Executor of the calls.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Permits to call, one per concurrent call.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Timeout of a call in nanos.
+     */
+    private final long timeoutNanos;
+
+    /**
+     * Builds a new Async Event service.
+     *
+     * @param theEventService   the event service
+     * @param theMaxConcurrency maximum number of concurrent calls
+     * @param theTimeout        timeout of a call, including the wait for
+     *                          a permit
+     */
+    public AsyncEventService(final EventService theEventService,
+                             final int theMaxConcurrency,
+                             final Duration theTimeout) {
+        if (theMaxConcurrency < 1 || theTimeout.isNegative()
+                || theTimeout.isZero()) {
+            throw new IllegalArgumentException("Invalid async settings");
+        }
+        this.eventService = theEventService;
+        this.permits = new Semaphore(theMaxConcurrency, true);
+        this.timeoutNanos = theTimeout.toNanos();
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("event-async-", 0).factory());
+    }
+
+    /**
+     * Creates an Event.
+     *
+     * @param categories the categories
+     * @param tags       the tags
+     * @param userName   the username
+     * @param locale     the locale
+     * @param event      the event
+     * @return the event
+     * @see EventService#create(List, List, String, Locale, Event)
+     */
+    public CompletableFuture<Event> create(final List<String> categories,
+                                           final List<String> tags,
+                                           final String userName,
+                                           final Locale locale,
+                                           final Event event) {
+        return submit(() -> eventService.create(categories, tags, userName,
+                locale, event));
+    }
+
+    /**
+     * Reads an Event.
+     *
+     * @param userName the username
+     * @param id       the id
+     * @param locale   the locale
+     * @return the event
+     * @see EventService#read(String, UUID, Locale)
+     */
+    public CompletableFuture<Optional<Event>> read(final String userName,
+                                                   final UUID id,
+                                                   final Locale locale) {
+        return submit(() -> eventService.read(userName, id, locale));
+    }
+
+    /**
+     * Reads Events in batches read in parallel.
+     *
+     * @param userName the username
+     * @param ids      the ids
+     * @param locale   the locale
+     * @return the events by id, missing ids are absent
+     * @see EventService#readAll(String, Collection, Locale)
+     */
+    public CompletableFuture<Map<UUID, Event>> readAll(
+            final String userName,
+            final Collection<UUID> ids,
+            final Locale locale) {
+        List<UUID> distinct = ids.stream().distinct().toList();
+        List<CompletableFuture<Map<UUID, Event>>> batches =
+                new ArrayList<>();
+        for (int from = 0; from < distinct.size();
+             from += READ_BATCH_SIZE) {
+            List<UUID> batch = distinct.subList(from,
+                    Math.min(distinct.size(), from + READ_BATCH_SIZE));
+            batches.add(submit(() -> eventService.readAll(userName,
+                    batch, locale)));
+        }
+        return fanIn(batches, CompletableFuture
+                .allOf(batches.toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    Map<UUID, Event> events = new HashMap<>(distinct.size());
+                    batches.forEach(batch -> events.putAll(batch.join()));
+                    return events;
+                }));
+    }
+
+    /**
+     * Reads an Event with the registration of the user, both in parallel.
+     *
+     * @param userName the username
+     * @param id       the id
+     * @param locale   the locale
+     * @return the event with registration
+     */
+    public CompletableFuture<Optional<Registration>> readRegistration(
+            final String userName,
+            final UUID id,
+            final Locale locale) {
+        CompletableFuture<Optional<Event>> event = read(userName, id, locale);
+        CompletableFuture<Boolean> registered = isRegistered(userName, id);
+        return fanIn(List.of(event, registered),
+                event.thenCombine(registered, (optional, isRegistered)
+                        -> optional.map(value
+                        -> new Registration(value, isRegistered))));
+    }
+
+    /**
+     * Updates an Event.
+     *
+     * @param id       the id
+     * @param userName the username
+     * @param locale   the locale
+     * @param event    the event
+     * @return the event
+     * @see EventService#update(UUID, String, Locale, Event)
+     */
+    public CompletableFuture<Event> update(final UUID id,
+                                           final String userName,
+                                           final Locale locale,
+                                           final Event event) {
+        return submit(() -> eventService.update(id, userName, locale, event));
+    }
+
+    /**
+     * Lists upcoming Events of the user.
+     *
+     * @param userName the username
+     * @param locale   the locale
+     * @return the events
+     * @see EventService#list(String, Locale)
+     */
+    public CompletableFuture<List<Event>> list(final String userName,
+                                               final Locale locale) {
+        return submit(() -> eventService.list(userName, locale));
+    }
+
+    /**
+     * Lists upcoming Events of the user having all the categories.
+     *
+     * @param userName   the username
+     * @param locale     the locale
+     * @param categories the categories
+     * @return the events
+     * @see EventService#list(String, Locale, List)
+     */
+    public CompletableFuture<List<Event>> list(final String userName,
+                                               final Locale locale,
+                                               final List<String>
+                                                       categories) {
+        return submit(() -> eventService.list(userName, locale, categories));
+    }
+
+    /**
+     * Lists a page of upcoming Events of the user.
+     *
+     * @param userName the username
+     * @param locale   the locale
+     * @param size     the page size
+     * @param after    token of the page, null for the first page
+     * @return the page
+     * @see EventService#list(String, Locale, int, String)
+     */
+    public CompletableFuture<Page<Event>> list(final String userName,
+                                               final Locale locale,
+                                               final int size,
+                                               final String after) {
+        return submit(() -> eventService.list(userName, locale, size, after));
+    }
+
+    /**
+     * Starts an Event.
+     *
+     * @param userName the username
+     * @param eventId  the event id
+     * @param url      the meeting url
+     * @return the boolean
+     * @see EventService#start(String, UUID, URL)
+     */
+    public CompletableFuture<Boolean> start(final String userName,
+                                            final UUID eventId,
+                                            final URL url) {
+        return submit(() -> eventService.start(userName, eventId, url));
+    }
+
+    /**
+     * Is the user registered for the Event.
+     *
+     * @param userName the username
+     * @param eventId  the event id
+     * @return the boolean
+     * @see EventService#isRegistered(String, UUID)
+     */
+    public CompletableFuture<Boolean> isRegistered(final String userName,
+                                                   final UUID eventId) {
+        return submit(() -> eventService.isRegistered(userName, eventId));
+    }
+
+    /**
+     * Registers the user for the Event.
+     *
+     * @param userName the username
+     * @param eventId  the event id
+     * @return the registration status
+     * @see EventService#register(String, UUID)
+     */
+    public CompletableFuture<RegistrationStatus> register(
+            final String userName,
+            final UUID eventId) {
+        return submit(() -> eventService.register(userName, eventId));
+    }
+
+    /**
+     * Joins the Event.
+     *
+     * @param userName the username
+     * @param eventId  the event id
+     * @return the meeting url
+     * @see EventService#join(String, UUID)
+     */
+    public CompletableFuture<String> join(final String userName,
+                                          final UUID eventId) {
+        return submit(() -> eventService.join(userName, eventId));
+    }
+
+    /**
+     * Stops accepting calls and interrupts the running ones.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the call on a virtual thread once a permit is available.
+     *
+     * @param call the call
+     * @param <T>  type of the result
+     * @return the result
+     */
+    private <T> CompletableFuture<T> submit(final Call<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    result.cancel(false);
+                    return;
+                }
+                try {
+                    result.complete(call.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+        return result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Cancels the parts when the whole fails, is cancelled or times out.
+     *
+     * @param parts the parts
+     * @param whole the whole
+     * @param <T>   type of the result
+     * @return the whole
+     */
+    private <T> CompletableFuture<T> fanIn(
+            final List<? extends CompletableFuture<?>> parts,
+            final CompletableFuture<T> whole) {
+        whole.whenComplete((value, error) -> {
+            if (error != null) {
+                parts.forEach(part -> part.cancel(true));
+            }
+        });
+        return whole.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Call to EventService.
+     *
+     * @param <T> type of the result
+     */
+    @FunctionalInterface
+    private interface Call<T> {
+        /**
+         * Calls.
+         *
+         * @return the result
+         * @throws Exception on failure
+         */
+        T call() throws Exception;
+    }
+
+    /**
+     * Event with the registration of a user.
+     *
+     * @param event      the event
+     * @param registered is the user registered
+     */
+    public record Registration(Event event, boolean registered) {
+    }
+}
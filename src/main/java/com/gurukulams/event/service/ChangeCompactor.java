@@ -0,0 +1,73 @@
+package com.gurukulams.event.service;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Background compactor of the outbox of Event changes.
+ * Keeps the changes of the retention, which should exceed the time a
+ * consumer may fall behind.
+ */
+public final class ChangeCompactor implements Runnable, AutoCloseable {
+
+    /**
+     * Runner of the compaction.
+     */
+    private final ScheduledRunner runner;
+
+    /**
+     * Builds a new Change compactor.
+     *
+     * @param theEventService the event service
+     * @param theRetention    how long changes are kept
+     * @param theChunkSize    maximum number of changes per transaction
+     */
+    public ChangeCompactor(final EventService theEventService,
+                           final Duration theRetention,
+                           final int theChunkSize) {
+        this.runner = new ScheduledRunner("event-change-compactor", () -> {
+            try {
+                return theEventService.compactChanges(
+                        LocalDateTime.now().minus(theRetention),
+                        theChunkSize);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Starts compacting periodically.
+     *
+     * @param interval the interval between runs
+     */
+    public void start(final Duration interval) {
+        this.runner.start(interval);
+    }
+
+    /**
+     * Deletes changes made before the retention.
+     */
+    @Override
+    public void run() {
+        this.runner.run();
+    }
+
+    /**
+     * Number of changes compacted.
+     *
+     * @return the count
+     */
+    public long compactedCount() {
+        return this.runner.handledCount();
+    }
+
+    /**
+     * Stops compacting.
+     */
+    @Override
+    public void close() {
+        this.runner.close();
+    }
+}
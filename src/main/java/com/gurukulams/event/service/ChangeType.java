@@ -0,0 +1,35 @@
+package com.gurukulams.event.service;
+
+/**
+ * Type of a change of an Event.
+ */
+public enum ChangeType {
+    /**
+     * Event created.
+     */
+    CREATED,
+    /**
+     * Event or its localization updated.
+     */
+    UPDATED,
+    /**
+     * Event deleted by its owner.
+     */
+    DELETED,
+    /**
+     * Event purged or archived after it happened.
+     */
+    EXPIRED,
+    /**
+     * Event started with a meeting.
+     */
+    STARTED,
+    /**
+     * Learner registered, also from the waitlist.
+     */
+    REGISTERED,
+    /**
+     * Learner unregistered.
+     */
+    UNREGISTERED
+}
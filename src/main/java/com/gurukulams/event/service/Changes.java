@@ -0,0 +1,14 @@
+package com.gurukulams.event.service;
+
+import java.util.List;
+
+/**
+ * Changes read from the outbox.
+ *
+ * @param items    the changes, in outbox order
+ * @param position opaque position after the changes, to read the next
+ *                 ones from. Same as the position read from when there
+ *                 are no changes, null if nothing was read ever.
+ */
+public record Changes(List<EventChange> items, String position) {
+}
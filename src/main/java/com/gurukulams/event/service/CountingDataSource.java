@@ -0,0 +1,92 @@
+package com.gurukulams.event.service;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Decorates a DataSource to count the statements executed and the rows
+ * read and written within the current {@link Invocation}.
+ */
+final class CountingDataSource {
+
+    private CountingDataSource() {
+    }
+
+    /**
+     * Decorates the DataSource.
+     *
+     * @param dataSource the data source
+     * @return the counting data source
+     */
+    static DataSource of(final DataSource dataSource) {
+        return proxy(DataSource.class, dataSource);
+    }
+
+    private static <T> T proxy(final Class<T> type, final Object target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> invoke(target, method, args)));
+    }
+
+    private static Object invoke(final Object target,
+                                 final Method method,
+                                 final Object[] args) throws Throwable {
+        final Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (target instanceof DataSource) {
+            return result instanceof Connection connection
+                    && method.getName().equals("getConnection")
+                    ? proxy(Connection.class, connection) : result;
+        }
+        if (target instanceof Connection) {
+            return result instanceof Statement
+                    ? proxy(method.getReturnType(), result) : result;
+        }
+        Invocation invocation = Invocation.current();
+        if (target instanceof Statement statement) {
+            if (invocation != null
+                    && method.getName().startsWith("execute")) {
+                invocation.executed(written(statement, result));
+            }
+            return result instanceof ResultSet
+                    ? proxy(ResultSet.class, result) : result;
+        }
+        if (invocation != null && Boolean.TRUE.equals(result)
+                && method.getName().equals("next")) {
+            invocation.read();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the rows written by an execute method.
+     *
+     * @param statement the statement
+     * @param result    result of the execute method
+     * @return the rows written
+     */
+    private static long written(final Statement statement,
+                                final Object result) throws Exception {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (Boolean.FALSE.equals(result)) {
+            rows = Math.max(0, statement.getUpdateCount());
+        }
+        return rows;
+    }
+}
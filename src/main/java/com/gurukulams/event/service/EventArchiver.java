@@ -0,0 +1,72 @@
+package com.gurukulams.event.service;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Background mover of finished Events to the archive.
+ * Keeps the live events table down to upcoming and recent events.
+ */
+public final class EventArchiver implements Runnable, AutoCloseable {
+
+    /**
+     * Runner of the archiving.
+     */
+    private final ScheduledRunner runner;
+
+    /**
+     * Builds a new Event archiver.
+     *
+     * @param theEventService the event service
+     * @param theRetention    how long events stay live after they happened
+     * @param theChunkSize    maximum number of events per transaction
+     */
+    public EventArchiver(final EventService theEventService,
+                         final Duration theRetention,
+                         final int theChunkSize) {
+        this.runner = new ScheduledRunner("event-archiver", () -> {
+            try {
+                return theEventService.archive(
+                        LocalDateTime.now().minus(theRetention),
+                        theChunkSize);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Starts archiving periodically.
+     *
+     * @param interval the interval between runs
+     */
+    public void start(final Duration interval) {
+        this.runner.start(interval);
+    }
+
+    /**
+     * Archives events that happened before the retention.
+     */
+    @Override
+    public void run() {
+        this.runner.run();
+    }
+
+    /**
+     * Number of events archived.
+     *
+     * @return the count
+     */
+    public long archivedCount() {
+        return this.runner.handledCount();
+    }
+
+    /**
+     * Stops archiving.
+     */
+    @Override
+    public void close() {
+        this.runner.close();
+    }
+}
@@ -0,0 +1,337 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.model.Event;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of Events by id and language tag with time to live.
+ * Hits are lock-free and only mark the entry as referenced. Loads and
+ * invalidations take a lock, and evict with a clock: entries are
+ * visited in the order cached, referenced ones get a second chance, so
+ * that eviction approximates least recently used. Writes through
+ * {@link EventService} invalidate the cached event for all the locales.
+ */
+public final class EventCache {
+
+    /**
+     * Language for non localized Events.
+     */
+    private static final String NO_LANGUAGE = "";
+
+    /**
+     * Number of invalidation stamps. Events share a stamp by the hash of
+     * their id.
+     */
+    private static final int STAMPS = 64;
+
+    /**
+     * Maximum number of entries.
+     */
+    private final int maximumSize;
+
+    /**
+     * Time to live in nanos.
+     */
+    private final long ttlNanos;
+
+    /**
+     * Entries.
+     */
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Entries in the order cached, the clock of eviction. Entries
+     * removed otherwise are skipped when reached.
+     */
+    private final Queue<Entry> clock = new ArrayDeque<>();
+
+    /**
+     * Cached languages of an Event.
+     */
+    private final Map<UUID, Set<String>> languages = new ConcurrentHashMap<>();
+
+    /**
+     * Stamps, incremented by every invalidation of an Event of the stamp.
+     */
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMPS);
+
+    /**
+     * Guards changes of entries, languages and clock.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Number of hits.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Number of misses.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Number of evictions.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Builds a new Event cache.
+     *
+     * @param theMaximumSize maximum number of entries
+     * @param theTtl         time to live of an entry
+     */
+    public EventCache(final int theMaximumSize, final Duration theTtl) {
+        if (theMaximumSize < 1 || theTtl.isNegative() || theTtl.isZero()) {
+            throw new IllegalArgumentException("Invalid cache settings");
+        }
+        this.maximumSize = theMaximumSize;
+        this.ttlNanos = theTtl.toNanos();
+    }
+
+    /**
+     * Gets the cached Event.
+     *
+     * @param id     the id
+     * @param locale the locale
+     * @return the optional
+     */
+    Optional<Event> get(final UUID id, final Locale locale) {
+        Key key = new Key(id, language(locale));
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.loadedAt > ttlNanos) {
+            lock.lock();
+            try {
+                if (entries.remove(key, entry)) {
+                    removeLanguage(key);
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        hits.increment();
+        return Optional.of(entry.event);
+    }
+
+    /**
+     * Current stamp of an Event, to be taken before loading it.
+     *
+     * @param id the id
+     * @return the stamp
+     */
+    long stamp(final UUID id) {
+        return stamps.get(stripe(id));
+    }
+
+    /**
+     * Caches the Event unless an Event of its stamp was invalidated
+     * since the stamp was taken.
+     *
+     * @param locale    the locale
+     * @param event     the event
+     * @param loadStamp stamp taken before loading
+     */
+    void put(final Locale locale,
+             final Event event,
+             final long loadStamp) {
+        Key key = new Key(event.id(), language(locale));
+        lock.lock();
+        try {
+            if (loadStamp != stamps.get(stripe(event.id()))) {
+                return;
+            }
+            if (!entries.containsKey(key)) {
+                while (entries.size() >= maximumSize) {
+                    evict();
+                }
+            }
+            Entry entry = new Entry(key, event, System.nanoTime());
+            entries.put(key, entry);
+            clock.add(entry);
+            languages.computeIfAbsent(event.id(),
+                    k -> ConcurrentHashMap.newKeySet()).add(key.language());
+            if (clock.size() > 2 * maximumSize) {
+                // Drops the entries removed otherwise
+                clock.removeIf(cached -> entries.get(cached.key) != cached);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Invalidates the Event in all the locales.
+     *
+     * @param id the id
+     */
+    void invalidate(final UUID id) {
+        lock.lock();
+        try {
+            stamps.incrementAndGet(stripe(id));
+            Set<String> cached = languages.remove(id);
+            if (cached != null) {
+                for (String language : cached) {
+                    entries.remove(new Key(id, language));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Invalidates all the Events.
+     */
+    void invalidateAll() {
+        lock.lock();
+        try {
+            for (int i = 0; i < STAMPS; i++) {
+                stamps.incrementAndGet(i);
+            }
+            entries.clear();
+            languages.clear();
+            clock.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of cached entries.
+     *
+     * @return the size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Number of reads served from the cache.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of reads not served from the cache.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of entries evicted by size or expiry.
+     *
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Evicts the first entry of the clock not referenced since its last
+     * visit. Called with the lock held and the clock not empty.
+     */
+    private void evict() {
+        while (true) {
+            Entry entry = clock.remove();
+            if (entries.get(entry.key) != entry) {
+                continue;
+            }
+            if (entry.referenced) {
+                entry.referenced = false;
+                clock.add(entry);
+            } else {
+                entries.remove(entry.key);
+                removeLanguage(entry.key);
+                evictions.increment();
+                return;
+            }
+        }
+    }
+
+    private void removeLanguage(final Key key) {
+        Set<String> cached = languages.get(key.id());
+        if (cached != null) {
+            cached.remove(key.language());
+            if (cached.isEmpty()) {
+                languages.remove(key.id());
+            }
+        }
+    }
+
+    private static int stripe(final UUID id) {
+        return Math.floorMod(id.hashCode(), STAMPS);
+    }
+
+    private static String language(final Locale locale) {
+        return locale == null ? NO_LANGUAGE : locale.toLanguageTag();
+    }
+
+    /**
+     * Cache Key.
+     *
+     * @param id       the id
+     * @param language the language
+     */
+    private record Key(UUID id, String language) {
+    }
+
+    /**
+     * Cached Event.
+     */
+    private static final class Entry {
+
+        /**
+         * Key of the entry.
+         */
+        private final Key key;
+
+        /**
+         * The Event.
+         */
+        private final Event event;
+
+        /**
+         * Nano time of loading.
+         */
+        private final long loadedAt;
+
+        /**
+         * Is it read since the clock last visited it. Racy writes only
+         * lose a second chance.
+         */
+        private volatile boolean referenced;
+
+        Entry(final Key theKey, final Event theEvent, final long theLoadedAt) {
+            this.key = theKey;
+            this.event = theEvent;
+            this.loadedAt = theLoadedAt;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.gurukulams.event.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A change of an Event, read from the outbox.
+ *
+ * @param position  opaque position of the change, to read the changes
+ *                  after it from
+ * @param eventId   the event id
+ * @param type      the type of change
+ * @param userName  user who made the change, or the learner of a
+ *                  registration, null for expiry
+ * @param changedAt when the change was made
+ */
+public record EventChange(String position,
+                          UUID eventId,
+                          ChangeType type,
+                          String userName,
+                          LocalDateTime changedAt) {
+}
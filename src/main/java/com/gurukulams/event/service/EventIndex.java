@@ -0,0 +1,296 @@
+package com.gurukulams.event.service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of upcoming Events.
+ * Maps a key (tag, category) to the set of Events having it. Events are
+ * given dense ordinals so that each posting is a compact {@link BitSet}.
+ * Events are removed once they happen, on the first match after.
+ */
+final class EventIndex {
+
+    /**
+     * Postings of key to event ordinals.
+     */
+    private final Map<String, BitSet> postings = new HashMap<>();
+
+    /**
+     * Ordinal of an Event.
+     */
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+
+    /**
+     * Event and its keys by ordinal.
+     */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Ordinals freed by removal for reuse.
+     */
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    /**
+     * Event dates, earliest first. Dates of moved Events stay until due,
+     * and are skipped then.
+     */
+    private final PriorityQueue<Due> due =
+            new PriorityQueue<>(Comparator.comparing(Due::eventDate));
+
+    /**
+     * Guards the index.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Is the index loaded from the database.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Is the index loaded.
+     *
+     * @return the boolean
+     */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Loads the index with keys of upcoming Events, unless already loaded.
+     *
+     * @param dataSource the data source
+     * @param sql        query of event id, key and event date
+     * @throws SQLException
+     */
+    synchronized void load(final DataSource dataSource,
+                           final String sql) throws SQLException {
+        if (loaded) {
+            return;
+        }
+        Map<UUID, List<String>> keysByEvent = new HashMap<>();
+        Map<UUID, LocalDateTime> dates = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int index = 1;
+                UUID eventId = rs.getObject(index++, UUID.class);
+                keysByEvent.computeIfAbsent(eventId, k -> new ArrayList<>())
+                        .add(rs.getString(index++));
+                dates.put(eventId, rs.getObject(index, LocalDateTime.class));
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            keysByEvent.forEach((eventId, keys)
+                    -> add(eventId, dates.get(eventId), keys));
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds keys to an Event.
+     *
+     * @param eventId   the event id
+     * @param eventDate the event date
+     * @param keys      the keys
+     */
+    void add(final UUID eventId,
+             final LocalDateTime eventDate,
+             final Collection<String> keys) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(eventId);
+            if (ordinal == null) {
+                ordinal = freeOrdinals.isEmpty()
+                        ? entries.size() : freeOrdinals.pop();
+                Entry entry = new Entry(eventId, eventDate,
+                        new ArrayList<>());
+                due.add(new Due(eventDate, eventId));
+                if (ordinal == entries.size()) {
+                    entries.add(entry);
+                } else {
+                    entries.set(ordinal, entry);
+                }
+                ordinals.put(eventId, ordinal);
+            }
+            Entry entry = entries.get(ordinal);
+            for (String key : keys) {
+                if (!entry.keys().contains(key)) {
+                    entry.keys().add(key);
+                    postings.computeIfAbsent(key, k -> new BitSet())
+                            .set(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves an Event to a new date, if indexed.
+     *
+     * @param eventId   the event id
+     * @param eventDate the event date
+     */
+    void move(final UUID eventId, final LocalDateTime eventDate) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(eventId);
+            if (ordinal != null) {
+                Entry entry = entries.get(ordinal);
+                entries.set(ordinal,
+                        new Entry(eventId, eventDate, entry.keys()));
+                due.add(new Due(eventDate, eventId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an Event.
+     *
+     * @param eventId the event id
+     */
+    void remove(final UUID eventId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(eventId);
+            if (ordinal != null) {
+                for (String key : entries.get(ordinal).keys()) {
+                    BitSet bitSet = postings.get(key);
+                    bitSet.clear(ordinal);
+                    if (bitSet.isEmpty()) {
+                        postings.remove(key);
+                    }
+                }
+                entries.set(ordinal, null);
+                freeOrdinals.push(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds Events having all the given keys.
+     *
+     * @param keys the keys
+     * @return the event ids
+     */
+    List<UUID> match(final Collection<String> keys) {
+        expire(LocalDateTime.now());
+        lock.readLock().lock();
+        try {
+            BitSet matched = null;
+            for (String key : keys) {
+                BitSet bitSet = postings.get(key);
+                if (bitSet == null) {
+                    return List.of();
+                }
+                if (matched == null) {
+                    matched = (BitSet) bitSet.clone();
+                } else {
+                    matched.and(bitSet);
+                }
+            }
+            if (matched == null) {
+                return List.of();
+            }
+            List<UUID> eventIds = new ArrayList<>(matched.cardinality());
+            matched.stream().forEach(ordinal
+                    -> eventIds.add(entries.get(ordinal).eventId()));
+            return eventIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the Events happened by now.
+     *
+     * @param now the time
+     */
+    void expire(final LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            if (due.isEmpty() || due.peek().eventDate().isAfter(now)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            while (!due.isEmpty() && !due.peek().eventDate().isAfter(now)) {
+                Due happened = due.poll();
+                Integer ordinal = ordinals.get(happened.eventId());
+                if (ordinal != null && entries.get(ordinal).eventDate()
+                        .equals(happened.eventDate())) {
+                    remove(happened.eventId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all the Events. A loaded index stays loaded.
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            ordinals.clear();
+            entries.clear();
+            freeOrdinals.clear();
+            due.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexed Event.
+     *
+     * @param eventId   the event id
+     * @param eventDate the event date
+     * @param keys      the keys
+     */
+    private record Entry(UUID eventId,
+                         LocalDateTime eventDate,
+                         List<String> keys) {
+    }
+
+    /**
+     * Date of an Event.
+     *
+     * @param eventDate the event date
+     * @param eventId   the event id
+     */
+    private record Due(LocalDateTime eventDate, UUID eventId) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.gurukulams.event.service;
+
+import java.util.Map;
+
+/**
+ * Metrics of a public method of {@link EventService}.
+ */
+public interface EventMethodMXBean {
+
+    /**
+     * Number of calls.
+     *
+     * @return the count
+     */
+    long getCount();
+
+    /**
+     * Number of calls that failed.
+     *
+     * @return the failure count
+     */
+    long getFailureCount();
+
+    /**
+     * Failed calls by the simple name of the exception.
+     *
+     * @return the failure counts
+     */
+    Map<String, Long> getFailures();
+
+    /**
+     * Number of statements executed.
+     *
+     * @return the statement count
+     */
+    long getStatementCount();
+
+    /**
+     * Number of rows read.
+     *
+     * @return the row count
+     */
+    long getRowsRead();
+
+    /**
+     * Number of rows inserted, updated or deleted.
+     *
+     * @return the row count
+     */
+    long getRowsWritten();
+
+    /**
+     * Median latency.
+     *
+     * @return the latency in micros
+     */
+    long getLatencyP50Micros();
+
+    /**
+     * 99th percentile latency.
+     *
+     * @return the latency in micros
+     */
+    long getLatencyP99Micros();
+
+    /**
+     * 99.9th percentile latency.
+     *
+     * @return the latency in micros
+     */
+    long getLatencyP999Micros();
+}
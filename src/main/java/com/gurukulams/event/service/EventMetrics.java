@@ -0,0 +1,36 @@
+package com.gurukulams.event.service;
+
+/**
+ * Receiver of metrics of the public methods of {@link EventService}.
+ * A call is recorded once it completes, with the SQL statements it
+ * executed and the rows they read and wrote. Rows of a stream read after
+ * it is returned are not recorded. Metrics other than {@link #NONE} count
+ * statements and rows through a decorated DataSource.
+ */
+@FunctionalInterface
+public interface EventMetrics {
+
+    /**
+     * No metrics, without any cost on the calls.
+     */
+    EventMetrics NONE = (method, elapsedNanos, statements, rowsRead,
+                         rowsWritten, failure) -> {
+    };
+
+    /**
+     * Records a call.
+     *
+     * @param method       name of the method
+     * @param elapsedNanos time taken by the call
+     * @param statements   number of statements executed, a batch as one
+     * @param rowsRead     number of rows read
+     * @param rowsWritten  number of rows inserted, updated or deleted
+     * @param failure      the exception thrown, null on success
+     */
+    void record(String method,
+                long elapsedNanos,
+                int statements,
+                long rowsRead,
+                long rowsWritten,
+                Exception failure);
+}
@@ -2,9 +2,6 @@ package com.gurukulams.event.service;
 
 import com.gurukulams.event.DataManager;
 import com.gurukulams.event.model.Event;
-import com.gurukulams.event.model.EventCategory;
-import com.gurukulams.event.model.EventLearner;
-import com.gurukulams.event.model.EventLocalized;
 import com.gurukulams.event.model.EventMeeting;
 import com.gurukulams.event.store.EventCategoryStore;
 import com.gurukulams.event.store.EventLearnerStore;
@@ -26,70 +23,357 @@ import static com.gurukulams.event.store.EventLocalizedStore.eventId;
 import static com.gurukulams.event.store.EventStore.id;
 import static com.gurukulams.event.store.EventStore.createdBy;
 import static com.gurukulams.event.store.EventStore.eventDate;
-import static com.gurukulams.event.store.EventStore.description;
-import static com.gurukulams.event.store.EventStore.title;
-import static com.gurukulams.event.store.EventStore.modifiedBy;
 
 import java.lang.annotation.ElementType;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * The type Event service.
+ * The type Event service. Closing it stops its background work, and
+ * leaves the data source open.
  */
-public class EventService {
+public class EventService implements AutoCloseable {
 
     /**
-     * Locale Specific Read Query.
+     * Even Advance Creation Days.
+     */
+    private static final int MAX_DAYS_IN_ADVANCE = 20;
+
+    /**
+     * Even Advance Creation Days.
+     */
+    private static final int MAX_MINUTES_IN_ADVANCE_TO_START = 10;
+    /**
+     * Meeting of an Event for its owner or registered learner.
+     */
+    private static final String JOIN_QUERY = """
+            select m.event_id, m.meeting_url
+            from events c
+            join events_meeting m on m.event_id = c.id
+            where c.id = ?
+                and (c.created_by = ?
+                    or exists (select 1 from events_learner l
+                        where l.event_id = c.id and l.user_handle = ?))
+            """;
+
+    /**
+     * Tables of Event children.
+     */
+    private static final List<String> CHILD_TABLES = List.of(
+            "events_meeting",
+            "events_learner",
+            "events_category",
+            "events_tag",
+            "events_localized",
+            "events_seat",
+            "events_waitlist",
+            "events_registration",
+            "events_feed");
+
+    /**
+     * Delete an Event with its children as one statement, a data-modifying
+     * CTE per child table. Foreign keys are checked at the end of the
+     * statement, once the children are gone. Binds the id once per table
+     * and once for the Event.
+     */
+    private static final String DELETE_EVENT = CHILD_TABLES.stream()
+            .map(table -> table + "_deleted as (delete from " + table
+                    + " where event_id = ?)")
+            .collect(Collectors.joining(", ", "with ",
+                    " delete from events where id = ?"));
+
+    /**
+     * Lock an Event to delete.
+     */
+    private static final String OWNER_FOR_UPDATE =
+            "select created_by from events where id = ? for update";
+
+    /**
+     * Lock a chunk of Events that happened before a cutoff.
+     */
+    private static final String EXPIRED_FOR_UPDATE = """
+            select id from events where event_date < ?
+            order by event_date limit ? for update
+            """;
+
+    /**
+     * Copy Events of given ids to the archive.
      */
-    private static final String READ_QUERY = """
-            select distinct c.id,
-                case when cl.locale = ?
-                    then cl.title
-                    else c.title
-                end as title,
-                case when cl.locale = ?
-                    then cl.description
-                    else c.description
-                end as description,event_date,
+    private static final String ARCHIVE_EVENTS = """
+            insert into events_archive(id, title, description, event_date,
+                created_at, created_by, modified_at, modified_by)
+            select id, title, description, event_date,
                 created_at, created_by, modified_at, modified_by
+            from events where id = any(?)
+            """;
+
+    /**
+     * Select Archived Events.
+     */
+    private static final String SELECT_ARCHIVED_EVENTS = """
+            select c.id, c.title, c.description, c.event_date,
+                c.created_at, c.created_by, c.modified_at, c.modified_by
+            from events_archive c
+            """;
+
+    /**
+     * Select Localized Archived Events.
+     */
+    private static final String SELECT_LOCALIZED_ARCHIVED_EVENTS = """
+            select c.id,
+                coalesce(ct.title, cl.title, c.title) as title,
+                coalesce(ct.description, cl.description, c.description)
+                    as description,
+                c.event_date, c.created_at, c.created_by,
+                c.modified_at, c.modified_by
+            from events_archive c
+            left join events_localized_archive ct
+                on c.id = ct.event_id and ct.locale = ?
+            left join events_localized_archive cl
+                on c.id = cl.event_id and cl.locale = ?
+            """;
+
+    /**
+     * Insert Event.
+     */
+    private static final String INSERT_EVENT = """
+            insert into events(id, title, description, event_date,
+                created_at, created_by)
+            values (?, ?, ?, ?, ?, ?)
+            """;
+
+    /**
+     * Insert Localized Event.
+     */
+    private static final String INSERT_LOCALIZED = """
+            insert into events_localized(event_id, locale, title, description)
+            values (?, ?, ?, ?)
+            """;
+
+    /**
+     * Insert Event Category.
+     */
+    private static final String INSERT_CATEGORY = """
+            insert into events_category(event_id, category_id)
+            values (?, ?)
+            """;
+
+    /**
+     * Insert Event Tag.
+     */
+    private static final String INSERT_TAG = """
+            insert into events_tag(event_id, tag_id)
+            values (?, ?)
+            """;
+
+    /**
+     * Learners of an Event after a handle.
+     */
+    private static final String SELECT_ROSTER = """
+            select user_handle from events_learner
+            where event_id = ? and user_handle > ?
+            order by user_handle limit ?
+            """;
+
+    /**
+     * Select Events.
+     */
+    private static final String SELECT_EVENTS = """
+            select c.id, c.title, c.description, c.event_date,
+                c.created_at, c.created_by, c.modified_at, c.modified_by
             from events c
-            left join events_localized cl on c.id = cl.event_id
-            where cl.locale is null
-                or cl.locale = ?
             """;
 
     /**
-     * Locale Specific List Query.
+     * Select Localized Events.
+     * Falls back from the language tag (de-CH) to the language (de) to
+     * the Event itself, each a primary key lookup on events_localized.
      */
-    private static final String LIST_QUERY = READ_QUERY
-                                                + " and event_date > now()";
+    private static final String SELECT_LOCALIZED_EVENTS = """
+            select c.id,
+                coalesce(ct.title, cl.title, c.title) as title,
+                coalesce(ct.description, cl.description, c.description)
+                    as description,
+                c.event_date, c.created_at, c.created_by,
+                c.modified_at, c.modified_by
+            from events c
+            left join events_localized ct
+                on c.id = ct.event_id and ct.locale = ?
+            left join events_localized cl
+                on c.id = cl.event_id and cl.locale = ?
+            """;
 
     /**
-     * Even Advance Creation Days.
+     * Upcoming Events of given ids.
      */
-    private static final int MAX_DAYS_IN_ADVANCE = 20;
+    private static final String WHERE_UPCOMING_IDS = """
+            where c.id = any(?) and c.event_date > now()
+            order by c.event_date, c.id
+            """;
 
     /**
-     * Even Advance Creation Days.
+     * Events of given ids.
      */
-    private static final int MAX_MINUTES_IN_ADVANCE_TO_START = 10;
+    private static final String WHERE_IDS = """
+            where c.id = any(?)
+            """;
+
+    /**
+     * Upcoming Events.
+     */
+    private static final String WHERE_UPCOMING = """
+            where c.event_date > now()
+            """;
+
+    /**
+     * Upcoming Events in the feed of an User, a range of the feed index.
+     */
+    private static final String USER_FEED = """
+            select event_id from events_feed
+            where user_handle = ? and event_date > now()
+            """;
+
+    /**
+     * Events of an User.
+     */
+    private static final String AND_USER_EVENTS =
+            " and c.id in (" + USER_FEED + ")";
+
+    /**
+     * Upcoming Events in the feed of an User, driven by the feed index in
+     * its (event_date, event_id) order.
+     */
+    private static final String JOIN_USER_FEED = """
+             join events_feed f on f.event_id = c.id
+            where f.user_handle = ? and f.event_date > now()
+            order by f.event_date, f.event_id
+            """;
+
+    /**
+     * Add an Event to the feed of its owner.
+     */
+    private static final String INSERT_FEED = """
+            insert into events_feed(event_id, user_handle, event_date)
+            values (?, ?, ?)
+            """;
+
+    /**
+     * Update an Event of the owner.
+     */
+    private static final String UPDATE_EVENT = """
+            update events set title = ?, description = ?, event_date = ?,
+            modified_by = ? where id = ? and created_by = ?
+            """;
+
+    /**
+     * Mark an Event of the owner modified.
+     */
+    private static final String MODIFY_EVENT =
+            "update events set modified_by = ? where id = ? and created_by = ?";
+
+    /**
+     * Update a localization of an Event.
+     */
+    private static final String UPDATE_LOCALIZED = """
+            update events_localized set title = ?, description = ?
+            where event_id = ? and locale = ?
+            """;
+
+    /**
+     * Start an Event with a meeting.
+     */
+    private static final String INSERT_MEETING =
+            "insert into events_meeting(event_id, meeting_url) values (?, ?)";
+
+    /**
+     * Move an Event in the feeds.
+     */
+    private static final String UPDATE_FEED =
+            "update events_feed set event_date = ? where event_id = ?";
+
+    /**
+     * Events having all the categories. Categories are bound as one
+     * array so that the statement text is the same for any number of
+     * categories.
+     */
+    private static final String AND_CATEGORIES = """
+             and c.id in (select event_id from events_category
+                where category_id = any(?)
+                group by event_id
+                having count(distinct category_id) = ?)
+            """;
+
+    /**
+     * Upcoming Events having all the categories.
+     */
+    private static final String LIST_BY_CATEGORIES =
+            SELECT_EVENTS + WHERE_UPCOMING + AND_CATEGORIES;
+
+    /**
+     * Localized Upcoming Events having all the categories.
+     */
+    private static final String LOCALIZED_LIST_BY_CATEGORIES =
+            SELECT_LOCALIZED_EVENTS + WHERE_UPCOMING + AND_CATEGORIES;
+
+    /**
+     * Events after the keyset.
+     */
+    private static final String AND_AFTER_KEYSET =
+            " and (c.event_date, c.id) > (?, ?)";
+
+    /**
+     * Order by keyset and limit.
+     */
+    private static final String ORDER_BY_KEYSET_LIMIT =
+            " order by c.event_date, c.id limit ?";
+
     /**
-     * GET REGISTRED USERS.
+     * Tags of Upcoming Events.
      */
-    private static final String LEARNER_WHERE_USER_HANDLE
-            = "select event_id from events_learner where user_handle = ?";
+    private static final String UPCOMING_TAGS = """
+            select t.event_id, t.tag_id, c.event_date
+            from events_tag t
+            join events c on c.id = t.event_id
+            where c.event_date > now()
+            """;
+
+    /**
+     * Categories of Upcoming Events.
+     */
+    private static final String UPCOMING_CATEGORIES = """
+            select ec.event_id, ec.category_id, c.event_date
+            from events_category ec
+            join events c on c.id = ec.event_id
+            where c.event_date > now()
+            """;
     /**
      * Datasource for persistence.
      */
@@ -131,6 +415,35 @@ public class EventService {
      */
     private final Validator validator;
 
+    /**
+     * Tag Index.
+     */
+    private final EventIndex tagIndex;
+
+    /**
+     * Category Index, used once loaded by indexCategories.
+     */
+    private final EventIndex categoryIndex;
+
+    /**
+     * Start Wheel, kept current once loaded by startWheel.
+     */
+    private final StartWheel startWheel;
+
+    /**
+     * Read cache, null when not cached.
+     */
+    private final EventCache cache;
+
+    /**
+     * Metrics of the public methods.
+     */
+    private final EventMetrics metrics;
+
+    /**
+     * Are public methods tracked as Invocations, for metrics or tracing.
+     */
+    private final boolean tracked;
 
     /**
      * Builds a new Event service.
@@ -141,7 +454,39 @@ public class EventService {
     public EventService(final DataSource theDataSource,
                         final DataManager dataManager,
                         final Validator theValidator) {
-        this.dataSource = theDataSource;
+        this(theDataSource, dataManager, theValidator, null);
+    }
+
+    /**
+     * Builds a new Event service with read cache.
+     * @param theDataSource
+     * @param dataManager      database manager.
+     * @param theValidator
+     * @param theCache         read cache, null for no caching.
+     */
+    public EventService(final DataSource theDataSource,
+                        final DataManager dataManager,
+                        final Validator theValidator,
+                        final EventCache theCache) {
+        this(theDataSource, dataManager, theValidator, theCache,
+                EventMetrics.NONE);
+    }
+
+    /**
+     * Builds a new Event service with read cache and metrics.
+     * @param theDataSource
+     * @param dataManager      database manager.
+     * @param theValidator
+     * @param theCache         read cache, null for no caching.
+     * @param theMetrics       metrics, EventMetrics.NONE for no metrics.
+     */
+    public EventService(final DataSource theDataSource,
+                        final DataManager dataManager,
+                        final Validator theValidator,
+                        final EventCache theCache,
+                        final EventMetrics theMetrics) {
+        this.dataSource = theMetrics == EventMetrics.NONE
+                ? theDataSource : CountingDataSource.of(theDataSource);
         this.eventStore = dataManager.getEventStore();
         this.eventLocalizedStore
                 = dataManager.getEventLocalizedStore();
@@ -154,6 +499,14 @@ public class EventService {
         this.eventMeetingStore =
                 dataManager.getEventMeetingStore();
         this.validator = theValidator;
+        this.tagIndex = new EventIndex();
+        this.categoryIndex = new EventIndex();
+        this.startWheel = new StartWheel(
+                Duration.ofMinutes(MAX_MINUTES_IN_ADVANCE_TO_START));
+        this.cache = theCache;
+        this.metrics = theMetrics;
+        this.tracked = theMetrics != EventMetrics.NONE
+                || TracingDataSource.isTraced(theDataSource);
     }
 
     /**
@@ -172,51 +525,91 @@ public class EventService {
                         final Locale locale,
                         final Event event)
             throws SQLException {
+        return measured("create", () -> {
+            Set<ConstraintViolation<Event>> violations =
+                    isValidEvent(event);
 
-        Set<ConstraintViolation<Event>> violations =
-                isValidEvent(event);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
 
-        if (!violations.isEmpty()) {
-            throw new ConstraintViolationException(violations);
-        }
+            UUID id = UUID.randomUUID();
+            final Event toBeCreated = event.withId(id)
+                    .withCreatedAt(LocalDateTime.now())
+                    .withCreatedBy(userName)
+                    .withEventDate(event.eventDate()
+                            .truncatedTo(ChronoUnit.SECONDS));
 
-        UUID id = UUID.randomUUID();
-      final Event toBeCreated = event.withId(id)
-        .withCreatedAt(LocalDateTime.now())
-        .withCreatedBy(userName)
-        .withEventDate(event.eventDate()
-                .truncatedTo(ChronoUnit.SECONDS));
-        this.eventStore.insert().values(toBeCreated).execute(this.dataSource);
-        if (locale != null) {
-            createLocalized(id, locale, toBeCreated);
-        }
-        for (String category : categories) {
-            attachCategory(id, category);
-        }
-        return read(userName, id, locale).get();
+            final Event created = inTransaction(connection -> {
+                insertEvent(connection, toBeCreated);
+                try (PreparedStatement ps =
+                             connection.prepareStatement(INSERT_FEED)) {
+                    int index = 1;
+                    ps.setObject(index++, id);
+                    ps.setString(index++, userName);
+                    ps.setObject(index, toBeCreated.eventDate());
+                    ps.executeUpdate();
+                }
+                if (locale != null) {
+                    insertLocalized(connection, id, locale, toBeCreated);
+                }
+                attach(connection, INSERT_CATEGORY, id, categories);
+                attach(connection, INSERT_TAG, id, tags);
+                Outbox.append(connection, id, ChangeType.CREATED, userName);
+                return toBeCreated;
+            });
+            index(this.tagIndex, id, created.eventDate(), tags);
+            index(this.categoryIndex, id, created.eventDate(), categories);
+            this.startWheel.add(id, created.eventDate());
+            return created;
+        });
     }
 
+    /**
+     * Inserts the Event row.
+     *
+     * @param connection
+     * @param event
+     * @throws SQLException
+     */
+    private void insertEvent(final Connection connection,
+                             final Event event)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_EVENT)) {
+            int index = 1;
+            ps.setObject(index++, event.id());
+            ps.setString(index++, event.title());
+            ps.setString(index++, event.description());
+            ps.setObject(index++, event.eventDate());
+            ps.setObject(index++, event.createdAt());
+            ps.setString(index, event.createdBy());
+            ps.executeUpdate();
+        }
+    }
 
     /**
-     * Creates Localized Event.
+     * Inserts Localized Event on the given connection.
      *
+     * @param connection
      * @param eventId
-     * @param event
      * @param locale
-     * @return localized
+     * @param event
      * @throws SQLException
      */
-    private int createLocalized(final UUID eventId,
-                                final Locale locale,
-                                final Event event)
+    private void insertLocalized(final Connection connection,
+                                 final UUID eventId,
+                                 final Locale locale,
+                                 final Event event)
             throws SQLException {
-        EventLocalized localized = new EventLocalized(eventId,
-                locale.getLanguage(),
-                event.title(),
-                event.description());
-        return this.eventLocalizedStore.insert()
-                .values(localized)
-                .execute(this.dataSource);
+        try (PreparedStatement ps =
+                     connection.prepareStatement(INSERT_LOCALIZED)) {
+            int index = 1;
+            ps.setObject(index++, eventId);
+            ps.setString(index++, locale.toLanguageTag());
+            ps.setString(index++, event.title());
+            ps.setString(index, event.description());
+            ps.executeUpdate();
+        }
     }
 
     /**
@@ -231,17 +624,88 @@ public class EventService {
                                 final UUID id,
                                 final Locale locale)
             throws SQLException {
+        return measured("read", () -> {
+            if (this.cache == null) {
+                return load(id, locale);
+            }
+            Optional<Event> event = this.cache.get(id, locale);
+            if (event.isEmpty()) {
+                final long stamp = this.cache.stamp(id);
+                event = load(id, locale);
+                event.ifPresent(loaded
+                        -> this.cache.put(locale, loaded, stamp));
+            }
+            return event;
+        });
+    }
+
+    /**
+     * Loads Event from database.
+     *
+     * @param id       the id
+     * @param locale   the locale
+     * @return the optional
+     */
+    private Optional<Event> load(final UUID id,
+                                 final Locale locale)
+            throws SQLException {
         return (locale == null)
                 ? this.eventStore.select(this.dataSource, id)
                 : eventStore.select()
-                .sql(READ_QUERY + " and c.id = ?")
-                .param(locale(locale.getLanguage()))
-                .param(locale(locale.getLanguage()))
+                .sql(SELECT_LOCALIZED_EVENTS + " where c.id = ?")
+                .param(locale(locale.toLanguageTag()))
                 .param(locale(locale.getLanguage()))
                 .param(id(id))
                 .optional(this.dataSource);
     }
 
+    /**
+     * Reads Events of given ids in one query.
+     *
+     * @param userName the username
+     * @param ids      the ids
+     * @param locale   the locale
+     * @return the events by id, ids not found are absent
+     */
+    public Map<UUID, Event> readAll(final String userName,
+                                    final Collection<UUID> ids,
+                                    final Locale locale)
+            throws SQLException {
+        return measured("readAll", () -> {
+            Map<UUID, Event> events = new HashMap<>(ids.size());
+            List<UUID> toLoad = new ArrayList<>(ids.size());
+            for (UUID id : ids) {
+                Optional<Event> cached = this.cache == null
+                        ? Optional.empty() : this.cache.get(id, locale);
+                if (cached.isPresent()) {
+                    events.put(id, cached.get());
+                } else {
+                    toLoad.add(id);
+                }
+            }
+            if (!toLoad.isEmpty()) {
+                Map<UUID, Long> stamps = new HashMap<>(toLoad.size());
+                if (this.cache != null) {
+                    toLoad.forEach(id -> stamps.put(id, this.cache.stamp(id)));
+                }
+                List<Object> params = new ArrayList<>();
+                if (locale != null) {
+                    params.addAll(localeParams(locale));
+                }
+                params.add(toLoad.toArray(UUID[]::new));
+                for (Event event : query(selectEvents(locale) + WHERE_IDS,
+                        params)) {
+                    events.put(event.id(), event);
+                    if (this.cache != null) {
+                        this.cache.put(locale, event,
+                                stamps.get(event.id()));
+                    }
+                }
+            }
+            return events;
+        });
+    }
+
     /**
      * Update event.
      *
@@ -255,54 +719,58 @@ public class EventService {
                         final String userName,
                         final Locale locale,
                         final Event event) throws SQLException {
+        return measured("update", () -> {
+            Set<ConstraintViolation<Event>> violations =
+                    isValidEvent(event);
 
-        Set<ConstraintViolation<Event>> violations =
-                isValidEvent(event);
-
-        if (!violations.isEmpty()) {
-            throw new ConstraintViolationException(violations);
-        }
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
 
-        int updatedRows;
-
-        event.withEventDate(event.eventDate()
-                .truncatedTo(ChronoUnit.SECONDS));
-
-        if (locale == null) {
-            updatedRows = this.eventStore.update()
-                    .set(title(event.title()),
-                            description(event.description()),
-                            eventDate(event.eventDate()),
-                            modifiedBy(userName))
-                    .where(id().eq(id).and()
-                            .createdBy().eq(userName)).execute(this.dataSource);
-        } else {
-            updatedRows = this.eventStore.update()
-                    .set(modifiedBy(userName))
-                    .where(id().eq(id)
-                            .and()
-                            .createdBy().eq(userName))
-                    .execute(this.dataSource);
-            if (updatedRows != 0) {
-                updatedRows = this.eventLocalizedStore.update().set(
-                                title(event.title()),
-                                description(event.description()),
-                                locale(locale.getLanguage()))
-                        .where(eventId().eq(id)
-                                .and().locale().eq(locale.getLanguage()))
-                        .execute(this.dataSource);
-
-                if (updatedRows == 0) {
-                    updatedRows = createLocalized(id, locale, event);
+            final LocalDateTime eventDate = event.eventDate()
+                    .truncatedTo(ChronoUnit.SECONDS);
+            final int updatedRows = inTransaction(connection -> {
+                int rows;
+                if (locale == null) {
+                    rows = execute(connection, UPDATE_EVENT, event.title(),
+                            event.description(), eventDate, userName, id,
+                            userName);
+                    if (rows != 0) {
+                        execute(connection, UPDATE_FEED, eventDate, id);
+                    }
+                } else {
+                    rows = execute(connection, MODIFY_EVENT, userName, id,
+                            userName);
+                    if (rows != 0 && execute(connection, UPDATE_LOCALIZED,
+                            event.title(), event.description(), id,
+                            locale.toLanguageTag()) == 0) {
+                        insertLocalized(connection, id, locale, event);
+                    }
                 }
+                if (rows != 0) {
+                    Outbox.append(connection, id, ChangeType.UPDATED,
+                            userName);
+                }
+                return rows;
+            });
+            if (locale == null && updatedRows != 0) {
+                // Synchronizes with load, as index does
+                synchronized (this.tagIndex) {
+                    this.tagIndex.move(id, eventDate);
+                }
+                synchronized (this.categoryIndex) {
+                    this.categoryIndex.move(id, eventDate);
+                }
+                this.startWheel.add(id, eventDate);
             }
-        }
+            invalidate(id);
 
-        if (updatedRows == 0) {
-            throw new IllegalArgumentException("Event not found");
-        }
+            if (updatedRows == 0) {
+                throw new IllegalArgumentException("Event not found");
+            }
 
-        return read(userName, id, locale).get();
+            return read(userName, id, locale).get();
+        });
     }
 
     /**
@@ -313,34 +781,14 @@ public class EventService {
      */
     public List<Event> list(final String userName,
                             final Locale locale) throws SQLException {
-        DataManager.SelectQuery selectQuery;
-
-        if (locale == null) {
-            selectQuery = eventStore
-                .select()
-                .sql("SELECT id,title,description,event_date,"
-                    + "created_at,created_by,modified_at,modified_by"
-                    + " FROM events WHERE event_date > now()"
-                    + " AND ( created_by = ? OR id IN ("
-                    + LEARNER_WHERE_USER_HANDLE
-                    + "))")
-                .param(createdBy(userName))
-                .param(createdBy(userName));
-        } else {
-            selectQuery = eventStore
-                    .select()
-                    .sql(LIST_QUERY
-                            + " AND ( c.created_by = ? OR c.id IN ("
-                            + LEARNER_WHERE_USER_HANDLE
-                            + "))")
-                    .param(locale(locale.getLanguage()))
-                    .param(locale(locale.getLanguage()))
-                    .param(locale(locale.getLanguage()))
-                    .param(createdBy(userName))
-                    .param(createdBy(userName));
-        }
-
-        return selectQuery.list(this.dataSource);
+        return measured("list", () -> {
+            List<Object> params = new ArrayList<>();
+            if (locale != null) {
+                params.addAll(localeParams(locale));
+            }
+            params.add(userName);
+            return query(selectEvents(locale) + JOIN_USER_FEED, params);
+        });
     }
 
     /**
@@ -354,72 +802,636 @@ public class EventService {
     public List<Event> list(final String userName,
                             final Locale locale,
                             final List<String> categories) throws SQLException {
-        DataManager.SelectQuery selectQuery;
-        if (locale == null) {
-            selectQuery = eventStore
-                    .select()
-                    .sql("SELECT id,title,description,event_date,"
-                            + "created_at,created_by,modified_at,modified_by"
-                            + " FROM events WHERE event_date > now()"
-                            + " AND id IN ("
-                            + getCategoryFilter(categories)
-                            + ")");
-        } else {
-            selectQuery = eventStore
-                    .select()
-                    .sql(LIST_QUERY
-                            + " and c.id IN ("
-                            + getCategoryFilter(categories)
-                            + ")")
-                    .param(locale(locale.getLanguage()))
-                    .param(locale(locale.getLanguage()))
-                    .param(locale(locale.getLanguage()));
-        }
+        return measured("listByCategories", () -> {
+            if (this.categoryIndex.isLoaded()) {
+                List<UUID> eventIds = this.categoryIndex.match(categories);
+                return eventIds.isEmpty()
+                        ? List.of() : listUpcoming(locale, eventIds);
+            }
+            List<Object> params = new ArrayList<>();
+            if (locale != null) {
+                params.addAll(localeParams(locale));
+            }
+            params.addAll(categoryParams(categories));
+            return query(locale == null
+                    ? LIST_BY_CATEGORIES : LOCALIZED_LIST_BY_CATEGORIES,
+                    params);
+        });
+    }
 
-        for (String category : categories) {
-            selectQuery.param(EventCategoryStore.categoryId(category));
-        }
+    /**
+     * Lists a page of Events of an User ordered by event date.
+     *
+     * @param userName the username
+     * @param locale   the locale
+     * @param size     the page size
+     * @param after    the next token of previous page, null for first page
+     * @return the page
+     */
+    public Page<Event> list(final String userName,
+                            final Locale locale,
+                            final int size,
+                            final String after) throws SQLException {
+        return measured("listPage", () -> {
+            return page(AND_USER_EVENTS, List.of(userName), locale, size,
+                    after);
+        });
+    }
 
-        return selectQuery.list(this.dataSource);
+    /**
+     * Lists a page of Events for categories ordered by event date.
+     *
+     * @param userName   the username
+     * @param locale     the locale
+     * @param categories the categories
+     * @param size       the page size
+     * @param after      the next token of previous page, null for first page
+     * @return the page
+     */
+    public Page<Event> list(final String userName,
+                            final Locale locale,
+                            final List<String> categories,
+                            final int size,
+                            final String after) throws SQLException {
+        return measured("listPageByCategories", () -> {
+            return page(AND_CATEGORIES, categoryParams(categories),
+                    locale, size, after);
+        });
     }
 
     /**
-     * Delete boolean.
+     * Fetches a page of Upcoming Events after the keyset.
      *
-     * @param userName the username
-     * @param eventId  the eventId
-     * @return the boolean
+     * @param filter       the filter condition
+     * @param filterParams the params of filter condition
+     * @param locale       the locale
+     * @param size         the page size
+     * @param after        the next token of previous page
+     * @return the page
+     * @throws SQLException
      */
-    public boolean delete(final String userName, final UUID eventId)
-            throws SQLException {
+    private Page<Event> page(final String filter,
+                             final List<Object> filterParams,
+                             final Locale locale,
+                             final int size,
+                             final String after) throws SQLException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Invalid page size");
+        }
+        StringBuilder sql = new StringBuilder(selectEvents(locale))
+                .append(WHERE_UPCOMING)
+                .append(filter);
+        List<Object> params = new ArrayList<>();
+        if (locale != null) {
+            params.addAll(localeParams(locale));
+        }
+        params.addAll(filterParams);
+        if (after != null) {
+            Keyset keyset = Keyset.of(after);
+            sql.append(AND_AFTER_KEYSET);
+            params.add(keyset.eventDate());
+            params.add(keyset.id());
+        }
+        sql.append(ORDER_BY_KEYSET_LIMIT);
+        params.add(size + 1);
 
-        Optional<Event> eventOptional = this.read(userName, eventId, null);
-        if (eventOptional.isPresent()
-                && eventOptional.get().createdBy().equals(userName)) {
-            this.eventMeetingStore
-                    .delete()
-                        .where(EventMeetingStore.eventId().eq(eventId))
-                    .execute(this.dataSource);
-            this.eventLearnerStore
-                    .delete()
-                        .where(EventLearnerStore.eventId().eq(eventId))
-                    .execute(this.dataSource);
-            this.eventCategoryStore
-                    .delete()
-                        .where(EventCategoryStore.eventId().eq(eventId))
-                    .execute(this.dataSource);
-            this.eventTagStore
-                    .delete()
-                        .where(EventTagStore.eventId().eq(eventId))
-                    .execute(this.dataSource);
-            this.eventLocalizedStore
-                    .delete()
-                        .where(eventId().eq(eventId))
-                    .execute(this.dataSource);
-            return this.eventStore
-                    .delete(this.dataSource, eventId) == 1;
-        } else {
-            throw new IllegalArgumentException("Event not found");
+        List<Event> events = query(sql.toString(), params);
+        if (events.size() > size) {
+            List<Event> items = events.subList(0, size);
+            return new Page<>(items,
+                    Keyset.of(items.get(size - 1)).token());
+        }
+        return new Page<>(events, null);
+    }
+
+    /**
+     * Gets params of SELECT_LOCALIZED_EVENTS.
+     *
+     * @param locale
+     * @return language tag and language
+     */
+    private static List<Object> localeParams(final Locale locale) {
+        return List.of(locale.toLanguageTag(), locale.getLanguage());
+    }
+
+    /**
+     * Gets Select for Events.
+     *
+     * @param locale
+     * @return select
+     */
+    private static String selectEvents(final Locale locale) {
+        return locale == null ? SELECT_EVENTS : SELECT_LOCALIZED_EVENTS;
+    }
+
+    /**
+     * Queries Events.
+     *
+     * @param sql
+     * @param params UUID[] are bound as uuid arrays
+     * @return the list
+     * @throws SQLException
+     */
+    private List<Event> query(final String sql,
+                              final List<Object> params)
+            throws SQLException {
+        try (Connection connection = this.dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            bind(connection, ps, params);
+            List<Event> events = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    events.add(asEvent(rs));
+                }
+            }
+            return events;
+        }
+    }
+
+    /**
+     * Binds params to the statement.
+     *
+     * @param connection
+     * @param ps
+     * @param params UUID[] and String[] are bound as arrays
+     * @throws SQLException
+     */
+    private static void bind(final Connection connection,
+                             final PreparedStatement ps,
+                             final List<Object> params)
+            throws SQLException {
+        int index = 1;
+        for (Object param : params) {
+            if (param instanceof UUID[] ids) {
+                ps.setArray(index++, connection.createArrayOf("uuid", ids));
+            } else if (param instanceof String[] values) {
+                ps.setArray(index++,
+                        connection.createArrayOf("varchar", values));
+            } else {
+                ps.setObject(index++, param);
+            }
+        }
+    }
+
+    /**
+     * Streams Upcoming Events of an User.
+     * Rows are read through a forward only cursor, fetchSize rows at a
+     * time. The stream holds a connection and must be closed.
+     * SQLException while reading is thrown as IllegalStateException.
+     *
+     * @param userName  the username
+     * @param locale    the locale
+     * @param fetchSize the number of rows fetched per round trip
+     * @return the stream
+     */
+    public Stream<Event> stream(final String userName,
+                                final Locale locale,
+                                final int fetchSize) throws SQLException {
+        return measured("stream", () -> {
+            List<Object> params = new ArrayList<>();
+            if (locale != null) {
+                params.addAll(localeParams(locale));
+            }
+            params.add(userName);
+            return stream(selectEvents(locale) + JOIN_USER_FEED, params,
+                    fetchSize);
+        });
+    }
+
+    /**
+     * Streams Upcoming Events for categories.
+     * Rows are read through a forward only cursor, fetchSize rows at a
+     * time. The stream holds a connection and must be closed.
+     * SQLException while reading is thrown as IllegalStateException.
+     *
+     * @param userName   the username
+     * @param locale     the locale
+     * @param categories the categories
+     * @param fetchSize  the number of rows fetched per round trip
+     * @return the stream
+     */
+    public Stream<Event> stream(final String userName,
+                                final Locale locale,
+                                final List<String> categories,
+                                final int fetchSize) throws SQLException {
+        return measured("streamByCategories", () -> {
+            List<Object> params = new ArrayList<>();
+            if (locale != null) {
+                params.addAll(localeParams(locale));
+            }
+            params.addAll(categoryParams(categories));
+            return stream(locale == null
+                    ? LIST_BY_CATEGORIES : LOCALIZED_LIST_BY_CATEGORIES,
+                    params, fetchSize);
+        });
+    }
+
+    /**
+     * Streams Events through a server side cursor.
+     *
+     * @param sql
+     * @param params
+     * @param fetchSize
+     * @return the stream
+     * @throws SQLException
+     */
+    private Stream<Event> stream(final String sql,
+                                 final List<Object> params,
+                                 final int fetchSize) throws SQLException {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Invalid fetch size");
+        }
+        final Connection connection = this.dataSource.getConnection();
+        PreparedStatement statement = null;
+        try {
+            // Cursors are held only within a transaction
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            bind(connection, statement, params);
+            final PreparedStatement ps = statement;
+            final ResultSet rs = ps.executeQuery();
+            return StreamSupport.stream(new Spliterators
+                    .AbstractSpliterator<Event>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(
+                        final Consumer<? super Event> action) {
+                    try {
+                        if (rs.next()) {
+                            action.accept(asEvent(rs));
+                            return true;
+                        }
+                        return false;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }, false).onClose(() -> {
+                try {
+                    close(connection, ps);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            close(connection, statement);
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the statement, ends the read only transaction
+     * and closes the connection.
+     *
+     * @param connection
+     * @param statement may be null
+     * @throws SQLException
+     */
+    private static void close(final Connection connection,
+                              final PreparedStatement statement)
+            throws SQLException {
+        try (connection; statement) {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * List events having all the given tags.
+     *
+     * @param userName the username
+     * @param locale   the locale
+     * @param tags     the tags
+     * @return the list
+     */
+    public List<Event> listByTags(final String userName,
+                                  final Locale locale,
+                                  final List<String> tags)
+            throws SQLException {
+        return measured("listByTags", () -> {
+            if (!this.tagIndex.isLoaded()) {
+                loadTagIndex();
+            }
+            List<UUID> eventIds = this.tagIndex.match(tags);
+            return eventIds.isEmpty()
+                    ? List.of() : listUpcoming(locale, eventIds);
+        });
+    }
+
+    /**
+     * Lists Upcoming Events of given ids.
+     *
+     * @param locale
+     * @param eventIds
+     * @return the list
+     * @throws SQLException
+     */
+    private List<Event> listUpcoming(final Locale locale,
+                                     final List<UUID> eventIds)
+            throws SQLException {
+        List<Object> params = new ArrayList<>();
+        if (locale != null) {
+            params.addAll(localeParams(locale));
+        }
+        params.add(eventIds.toArray(UUID[]::new));
+        return query(selectEvents(locale) + WHERE_UPCOMING_IDS, params);
+    }
+
+    /**
+     * Loads Tag Index with Upcoming Events.
+     *
+     * @throws SQLException
+     */
+    private void loadTagIndex() throws SQLException {
+        this.tagIndex.load(this.dataSource, UPCOMING_TAGS);
+    }
+
+    /**
+     * Builds in-memory Category Index of Upcoming Events, to be called at
+     * startup. From then on list for categories intersects the index
+     * instead of grouping events_category.
+     *
+     * @throws SQLException
+     */
+    public void indexCategories() throws SQLException {
+        measured("indexCategories", () -> {
+            this.categoryIndex.load(this.dataSource, UPCOMING_CATEGORIES);
+            return null;
+        });
+    }
+
+    /**
+     * Timing wheel of upcoming Events by start window, loaded on first
+     * call. From then on it is kept current by create, update and delete,
+     * and tells subscribers when start windows open, until this service
+     * is closed.
+     *
+     * @return the start wheel
+     */
+    public StartWheel startWheel() throws SQLException {
+        return measured("startWheel", () -> {
+            this.startWheel.load(this.dataSource);
+            return this.startWheel;
+        });
+    }
+
+    /**
+     * Stops turning the Start Wheel. It is still kept current.
+     */
+    @Override
+    public void close() {
+        this.startWheel.stop();
+    }
+
+    /**
+     * Adds an Event to the index if loaded. Synchronizes with load, so that
+     * an Event committed while loading is not missed.
+     *
+     * @param index
+     * @param id
+     * @param eventDate
+     * @param keys
+     */
+    private static void index(final EventIndex index,
+                              final UUID id,
+                              final LocalDateTime eventDate,
+                              final List<String> keys) {
+        synchronized (index) {
+            if (index.isLoaded()) {
+                index.add(id, eventDate, keys);
+            }
+        }
+    }
+
+    /**
+     * Removes an Event from the index. Synchronizes with load, so that an
+     * Event deleted while loading is not added back.
+     *
+     * @param index
+     * @param id
+     */
+    private static void unindex(final EventIndex index, final UUID id) {
+        synchronized (index) {
+            index.remove(id);
+        }
+    }
+
+    /**
+     * Delete boolean.
+     *
+     * @param userName the username
+     * @param eventId  the eventId
+     * @return the boolean
+     */
+    public boolean delete(final String userName, final UUID eventId)
+            throws SQLException {
+        return measured("delete", () -> {
+            final boolean deleted = inTransaction(connection -> {
+                String owner = ownerForUpdate(connection, eventId);
+                if (owner == null || !owner.equals(userName)) {
+                    throw new IllegalArgumentException("Event not found");
+                }
+                Outbox.append(connection, eventId, ChangeType.DELETED,
+                        userName);
+                Object[] ids = new Object[CHILD_TABLES.size() + 1];
+                Arrays.fill(ids, eventId);
+                return execute(connection, DELETE_EVENT, ids) == 1;
+            });
+            unindex(this.tagIndex, eventId);
+            unindex(this.categoryIndex, eventId);
+            this.startWheel.remove(eventId);
+            invalidate(eventId);
+            return deleted;
+        });
+    }
+
+    /**
+     * Purges Events (with meeting, learners, categories, tags and
+     * localizations) that happened before the cutoff. Events are purged in
+     * chunks, each in its own short transaction.
+     *
+     * @param cutoff    events before this are purged
+     * @param chunkSize maximum number of events per transaction
+     * @return number of events purged
+     */
+    public int purge(final LocalDateTime cutoff,
+                     final int chunkSize) throws SQLException {
+        return measured("purge", () -> {
+            return expire(cutoff, chunkSize, false);
+        });
+    }
+
+    /**
+     * Moves Events (with meeting, learners, categories, tags and
+     * localizations) that happened before the cutoff to the archive.
+     * Events are moved in chunks, each in its own short transaction.
+     *
+     * @param cutoff    events before this are archived
+     * @param chunkSize maximum number of events per transaction
+     * @return number of events archived
+     */
+    public int archive(final LocalDateTime cutoff,
+                       final int chunkSize) throws SQLException {
+        return measured("archive", () -> {
+            return expire(cutoff, chunkSize, true);
+        });
+    }
+
+    /**
+     * Reads an archived Event.
+     *
+     * @param userName the username
+     * @param id       the id
+     * @param locale   the locale
+     * @return the optional
+     */
+    public Optional<Event> readArchived(final String userName,
+                                        final UUID id,
+                                        final Locale locale)
+            throws SQLException {
+        return measured("readArchived", () -> {
+            List<Object> params = new ArrayList<>();
+            if (locale != null) {
+                params.addAll(localeParams(locale));
+            }
+            params.add(id);
+            return query((locale == null ? SELECT_ARCHIVED_EVENTS
+                    : SELECT_LOCALIZED_ARCHIVED_EVENTS) + " where c.id = ?",
+                    params).stream().findFirst();
+        });
+    }
+
+    /**
+     * Removes Events that happened before the cutoff in chunks.
+     *
+     * @param cutoff
+     * @param chunkSize
+     * @param archive   copy to archive before removing
+     * @return number of events removed
+     * @throws SQLException
+     */
+    private int expire(final LocalDateTime cutoff,
+                       final int chunkSize,
+                       final boolean archive) throws SQLException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid chunk size");
+        }
+        int expired = 0;
+        List<UUID> chunk;
+        do {
+            chunk = inTransaction(connection
+                    -> expire(connection, cutoff, chunkSize, archive));
+            for (UUID id : chunk) {
+                unindex(this.tagIndex, id);
+                unindex(this.categoryIndex, id);
+                this.startWheel.remove(id);
+                invalidate(id);
+            }
+            expired += chunk.size();
+        } while (chunk.size() == chunkSize);
+        return expired;
+    }
+
+    /**
+     * Removes a chunk of Events that happened before the cutoff.
+     *
+     * @param connection
+     * @param cutoff
+     * @param chunkSize
+     * @param archive   copy to archive before removing
+     * @return ids of events removed
+     * @throws SQLException
+     */
+    private List<UUID> expire(final Connection connection,
+                              final LocalDateTime cutoff,
+                              final int chunkSize,
+                              final boolean archive) throws SQLException {
+        List<UUID> ids = new ArrayList<>(chunkSize);
+        try (PreparedStatement ps =
+                     connection.prepareStatement(EXPIRED_FOR_UPDATE)) {
+            ps.setObject(1, cutoff);
+            ps.setInt(2, chunkSize);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getObject(1, UUID.class));
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            Array idArray = connection.createArrayOf("uuid", ids.toArray());
+            Outbox.appendExpired(connection, idArray);
+            if (archive) {
+                updateAll(connection, ARCHIVE_EVENTS, idArray);
+                for (String table : CHILD_TABLES) {
+                    updateAll(connection, "insert into " + table
+                            + "_archive select * from " + table
+                            + " where event_id = any(?)", idArray);
+                }
+            }
+            for (String table : CHILD_TABLES) {
+                updateAll(connection, "delete from " + table
+                        + " where event_id = any(?)", idArray);
+            }
+            updateAll(connection, "delete from events where id = any(?)",
+                    idArray);
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts or Deletes rows of given ids.
+     *
+     * @param connection
+     * @param sql
+     * @param ids
+     * @throws SQLException
+     */
+    private static void updateAll(final Connection connection,
+                                  final String sql,
+                                  final Array ids) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setArray(1, ids);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Executes an update with the params.
+     *
+     * @param connection
+     * @param sql
+     * @param params
+     * @return rows updated
+     * @throws SQLException
+     */
+    private static int execute(final Connection connection,
+                               final String sql,
+                               final Object... params) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            bind(connection, ps, List.of(params));
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Locks the Event and gets its owner.
+     *
+     * @param connection
+     * @param eventId
+     * @return owner, null if not found
+     * @throws SQLException
+     */
+    private static String ownerForUpdate(final Connection connection,
+                                         final UUID eventId)
+            throws SQLException {
+        try (PreparedStatement ps =
+                     connection.prepareStatement(OWNER_FOR_UPDATE)) {
+            ps.setObject(1, eventId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
         }
     }
 
@@ -435,30 +1447,34 @@ public class EventService {
                          final UUID eventId,
                          final URL url)
             throws SQLException {
-        Optional<Event> eventOptional = this.read(userName, eventId, null);
-        if (url != null
-            && eventOptional.isPresent()
-                && eventOptional.get().createdBy().equals(userName)) {
-            LocalDateTime eventDateTime = eventOptional.get().eventDate();
-            LocalDateTime start = LocalDateTime.now()
-                    .minusMinutes(MAX_MINUTES_IN_ADVANCE_TO_START);
-            LocalDateTime thresold = LocalDateTime.now()
-                    .plusMinutes(MAX_MINUTES_IN_ADVANCE_TO_START);
-
-            if (eventDateTime
-                    .isAfter(start) && eventDateTime.isBefore(thresold)) {
-                EventMeeting meeting = new EventMeeting(eventId,
-                        url.toString());
-                return this.eventMeetingStore
-                        .insert()
-                        .values(meeting)
-                        .execute(this.dataSource) == 1;
+        return measured("start", () -> {
+            Optional<Event> eventOptional = this.read(userName, eventId, null);
+            if (url != null
+                && eventOptional.isPresent()
+                    && eventOptional.get().createdBy().equals(userName)) {
+                LocalDateTime eventDateTime = eventOptional.get().eventDate();
+                LocalDateTime start = LocalDateTime.now()
+                        .minusMinutes(MAX_MINUTES_IN_ADVANCE_TO_START);
+                LocalDateTime thresold = LocalDateTime.now()
+                        .plusMinutes(MAX_MINUTES_IN_ADVANCE_TO_START);
+
+                if (eventDateTime
+                        .isAfter(start) && eventDateTime.isBefore(thresold)) {
+                    return inTransaction(connection -> {
+                        int started = execute(connection, INSERT_MEETING,
+                                eventId, url.toString());
+                        Outbox.append(connection, eventId,
+                                ChangeType.STARTED, userName);
+                        return started == 1;
+                    });
+                } else {
+                    throw new IllegalArgumentException(
+                            "Event not ready to start");
+                }
             } else {
-                throw new IllegalArgumentException("Event not ready to start");
+                throw new IllegalArgumentException("Event not found");
             }
-        } else {
-            throw new IllegalArgumentException("Event not found");
-        }
+        });
     }
 
     /**
@@ -471,31 +1487,199 @@ public class EventService {
     public boolean isRegistered(final String userName,
                                 final UUID eventId)
             throws SQLException {
-        return this.eventLearnerStore.exists(this.dataSource,
-                eventId, userName);
+        return measured("isRegistered", () -> {
+            return this.eventLearnerStore.exists(this.dataSource,
+                    eventId, userName);
+        });
     }
 
     /**
      * Register for an Event..
+     * Registering again is not an error. For a seat-limited Event, the
+     * user takes a seat, or joins the waitlist once seats are over.
      *
      * @param userName the username
      * @param eventId       the eventId
-     * @return the boolean
+     * @return the registration status
      */
-    public boolean register(final String userName, final UUID eventId)
+    public RegistrationStatus register(final String userName,
+                                       final UUID eventId)
             throws SQLException {
-        Optional<Event> eventOptional = this.read(userName, eventId, null);
-        if (eventOptional.isPresent()
-                && !eventOptional.get().createdBy().equals(userName)) {
-            EventLearner eventLearner = new EventLearner(eventId,
-                    userName);
-            return this.eventLearnerStore
-                    .insert()
-                    .values(eventLearner)
-                    .execute(this.dataSource) == 1;
-        } else {
-            throw new IllegalArgumentException("Event not found");
+        return measured("register", () -> {
+            Optional<Event> eventOptional = this.read(userName, eventId, null);
+            if (eventOptional.isPresent()
+                    && !eventOptional.get().createdBy().equals(userName)) {
+                return inTransaction(connection ->
+                        Seats.register(connection, eventId, userName));
+            } else {
+                throw new IllegalArgumentException("Event not found");
+            }
+        });
+    }
+
+    /**
+     * Registers learners for an Event, validating the Event once and
+     * inserting the learners in batches. Learners registered already are
+     * not an error. Seats of a seat-limited Event go to the learners in
+     * the order given, the others are waitlisted. The owner of the Event
+     * is rejected, the others are registered.
+     *
+     * @param eventId   the eventId
+     * @param userNames the usernames of the learners
+     * @return the registration status by username, in the order given
+     */
+    public Map<String, RegistrationStatus> registerAll(
+            final UUID eventId,
+            final Collection<String> userNames) throws SQLException {
+        return measured("registerAll", () -> {
+            Optional<Event> eventOptional = load(eventId, null);
+            if (eventOptional.isEmpty()) {
+                throw new IllegalArgumentException("Event not found");
+            }
+            if (userNames.isEmpty()) {
+                return Map.of();
+            }
+            return inTransaction(connection -> Seats.registerAll(connection,
+                    eventId, eventOptional.get().createdBy(), userNames));
+        });
+    }
+
+    /**
+     * Unregister from an Event or its waitlist. The seat goes to the first
+     * waitlisted learner, if any.
+     *
+     * @param userName the username
+     * @param eventId  the eventId
+     * @return false if neither registered nor waitlisted
+     */
+    public boolean unregister(final String userName, final UUID eventId)
+            throws SQLException {
+        return measured("unregister", () -> inTransaction(connection ->
+                Seats.unregister(connection, eventId, userName)));
+    }
+
+    /**
+     * Limits the seats of an Event. Registered learners keep their seats,
+     * waitlisted learners are registered into the seats left.
+     *
+     * @param userName the username
+     * @param eventId  the eventId
+     * @param capacity the number of seats
+     */
+    public void limit(final String userName,
+                      final UUID eventId,
+                      final int capacity) throws SQLException {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity");
         }
+        measured("limit", () -> inTransaction(connection -> {
+            if (!userName.equals(ownerForUpdate(connection, eventId))) {
+                throw new IllegalArgumentException("Event not found");
+            }
+            Seats.limit(connection, eventId, capacity);
+            return null;
+        }));
+    }
+
+    /**
+     * Available seats of an Event.
+     *
+     * @param eventId the eventId
+     * @return the seats, empty if not seat-limited
+     */
+    public OptionalInt seats(final UUID eventId) throws SQLException {
+        return measured("seats", () -> {
+            try (Connection connection = this.dataSource.getConnection()) {
+                return Seats.available(connection, eventId);
+            }
+        });
+    }
+
+    /**
+     * Lists a page of learners registered for an Event, ordered by handle.
+     * Only the owner can list them.
+     *
+     * @param userName the username
+     * @param eventId  the eventId
+     * @param size     the page size
+     * @param after    the next token of previous page, null for first page
+     * @return the page of user handles
+     */
+    public Page<String> roster(final String userName,
+                               final UUID eventId,
+                               final int size,
+                               final String after) throws SQLException {
+        return measured("roster", () -> {
+            if (size < 1) {
+                throw new IllegalArgumentException("Invalid page size");
+            }
+            Optional<Event> eventOptional = this.read(userName, eventId, null);
+            if (eventOptional.isEmpty()
+                    || !eventOptional.get().createdBy().equals(userName)) {
+                throw new IllegalArgumentException("Event not found");
+            }
+            String handle = "";
+            if (after != null) {
+                try {
+                    handle = new String(Base64.getUrlDecoder().decode(after),
+                            StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid page token",
+                            e);
+                }
+            }
+            List<String> learners = new ArrayList<>(size + 1);
+            try (Connection connection = this.dataSource.getConnection();
+                 PreparedStatement ps =
+                         connection.prepareStatement(SELECT_ROSTER)) {
+                int index = 1;
+                ps.setObject(index++, eventId);
+                ps.setString(index++, handle);
+                ps.setInt(index, size + 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        learners.add(rs.getString(1));
+                    }
+                }
+            }
+            if (learners.size() > size) {
+                List<String> items = learners.subList(0, size);
+                return new Page<>(items, Base64.getUrlEncoder()
+                        .withoutPadding().encodeToString(items.get(size - 1)
+                                .getBytes(StandardCharsets.UTF_8)));
+            }
+            return new Page<>(learners, null);
+        });
+    }
+
+    /**
+     * Number of learners registered for an Event, from its registration
+     * counters.
+     *
+     * @param eventId the eventId
+     * @return the count
+     */
+    public int registrations(final UUID eventId) throws SQLException {
+        return registrations(List.of(eventId)).get(eventId);
+    }
+
+    /**
+     * Number of learners registered for Events in one query, from their
+     * registration counters.
+     *
+     * @param eventIds the eventIds
+     * @return the counts by eventId
+     */
+    public Map<UUID, Integer> registrations(final Collection<UUID> eventIds)
+            throws SQLException {
+        return measured("registrations", () -> {
+            Map<UUID, Integer> registrations;
+            try (Connection connection = this.dataSource.getConnection()) {
+                registrations = Seats.registrations(connection, eventIds);
+            }
+            eventIds.forEach(id -> registrations.putIfAbsent(id, 0));
+            return registrations;
+        });
     }
 
     /**
@@ -507,80 +1691,198 @@ public class EventService {
      */
     public String join(final String userName, final UUID eventId)
             throws SQLException {
-        Optional<Event> eventOptional
-                = this.read(userName, eventId, null);
-        if (eventOptional.isPresent()) {
-            Optional<EventMeeting> meeting
-                    = this.eventMeetingStore.select(this.dataSource, eventId);
+        return measured("join", () -> {
+            Optional<EventMeeting> meeting = this.eventMeetingStore
+                    .select()
+                    .sql(JOIN_QUERY)
+                    .param(id(eventId))
+                    .param(createdBy(userName))
+                    .param(createdBy(userName))
+                    .optional(this.dataSource);
             if (meeting.isPresent()) {
-                if (eventOptional.get().createdBy().equals(userName)
-                        || isRegistered(userName, eventId)) {
-                    return meeting.get().meetingUrl();
-                }
+                return meeting.get().meetingUrl();
             }
-        }
-        throw new IllegalArgumentException("Event not found");
+            throw new IllegalArgumentException("Event not found");
+        });
+    }
+
+    /**
+     * Reads changes of Events from the outbox after a position, for
+     * consumers to sync in O(changes). Changes are appended in the
+     * transaction of the change and read once committed, changes of an
+     * Event in the order they were made. Changes compacted before they
+     * are read are lost to the consumer.
+     *
+     * @param after the position of the changes read last, null to read
+     *              from the first change
+     * @param size  maximum number of changes
+     * @return the changes
+     */
+    public Changes changes(final String after,
+                           final int size) throws SQLException {
+        return measured("changes", () -> {
+            if (size < 1) {
+                throw new IllegalArgumentException("Invalid batch size");
+            }
+            try (Connection connection = this.dataSource.getConnection()) {
+                return Outbox.read(connection, after, size);
+            }
+        });
+    }
+
+    /**
+     * Deletes changes made before the cutoff from the outbox, in chunks.
+     *
+     * @param cutoff    changes before this are deleted
+     * @param chunkSize maximum number of changes per transaction
+     * @return number of changes deleted
+     */
+    public int compactChanges(final LocalDateTime cutoff,
+                              final int chunkSize) throws SQLException {
+        return measured("compactChanges", () -> {
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("Invalid chunk size");
+            }
+            try (Connection connection = this.dataSource.getConnection()) {
+                return Outbox.compact(connection, cutoff, chunkSize);
+            }
+        });
     }
 
     /**
      * Cleaning up all event.
      */
     public void delete() throws SQLException {
-        this.eventMeetingStore
-                .delete()
-                .execute(this.dataSource);
-        this.eventLearnerStore
-                .delete()
-                .execute(this.dataSource);
-        this.eventCategoryStore
-                .delete()
-                .execute(this.dataSource);
-        this.eventTagStore
-                .delete()
-                .execute(this.dataSource);
-        this.eventLocalizedStore
-                .delete()
-                .execute(this.dataSource);
-        this.eventStore
-                .delete()
-                .execute(this.dataSource);
+        measured("deleteAll", () -> {
+            this.eventMeetingStore
+                    .delete()
+                    .execute(this.dataSource);
+            this.eventLearnerStore
+                    .delete()
+                    .execute(this.dataSource);
+            this.eventCategoryStore
+                    .delete()
+                    .execute(this.dataSource);
+            this.eventTagStore
+                    .delete()
+                    .execute(this.dataSource);
+            this.eventLocalizedStore
+                    .delete()
+                    .execute(this.dataSource);
+            try (Connection connection = this.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.addBatch("delete from events_seat");
+                statement.addBatch("delete from events_waitlist");
+                statement.addBatch("delete from events_registration");
+                statement.addBatch("delete from events_feed");
+                statement.addBatch("delete from events_outbox");
+                statement.executeBatch();
+            }
+            this.eventStore
+                    .delete()
+                    .execute(this.dataSource);
+            try (Connection connection = this.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                for (String table : CHILD_TABLES) {
+                    statement.addBatch("delete from " + table + "_archive");
+                }
+                statement.addBatch("delete from events_archive");
+                statement.executeBatch();
+            }
+            this.tagIndex.clear();
+            this.categoryIndex.clear();
+            this.startWheel.clear();
+            if (this.cache != null) {
+                this.cache.invalidateAll();
+            }
+            return null;
+        });
     }
 
     /**
-     * Attach category to an Event.
+     * Invalidates the cached Event.
      * @param id
-     * @param category
-     * @return flag
      */
-    private boolean attachCategory(final UUID id,
-                                final String category)
+    private void invalidate(final UUID id) {
+        if (this.cache != null) {
+            this.cache.invalidate(id);
+        }
+    }
+
+    /**
+     * Attach categories or tags to an Event as a single batch.
+     * @param connection
+     * @param sql insert statement
+     * @param id
+     * @param values categories or tags
+     */
+    private void attach(final Connection connection,
+                        final String sql,
+                        final UUID id,
+                        final List<String> values)
             throws SQLException {
-        int noOfRowsInserted = 0;
+        if (!values.isEmpty()) {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (String value : values) {
+                    ps.setObject(1, id);
+                    ps.setString(2, value);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+    }
 
-        EventCategory questionCategory = new EventCategory(id,
-                category);
-        noOfRowsInserted = this.eventCategoryStore
-                .insert()
-                .values(questionCategory)
-                .execute(this.dataSource);
+    /**
+     * Runs the work on a single connection as one transaction.
+     * @param work
+     * @return result of the work
+     * @param <T>
+     * @throws SQLException
+     */
+    private <T> T inTransaction(final Work<T> work) throws SQLException {
+        try (Connection connection = this.dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                T result = work.apply(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
 
-        return noOfRowsInserted == 1;
+    /**
+     * Gets params of AND_CATEGORIES.
+     * @param categories
+     * @return params
+     */
+    private static List<Object> categoryParams(final List<String> categories) {
+        String[] distinct = categories.stream().distinct()
+                .toArray(String[]::new);
+        return List.of(distinct, distinct.length);
     }
 
     /**
-     * Get Category Filter.
-     * @param category
-     * @return filter
+     * Maps the current row to an Event.
+     * @param rs
+     * @return event
+     * @throws SQLException
      */
-    private String getCategoryFilter(final List<String> category) {
-        return "select event_id from "
-                + "events_category where category_id in ("
-                + category.stream().map(tag -> "?")
-                .collect(Collectors.joining(","))
-                + ") "
-                + "group by event_id "
-                + "having count(distinct category_id) = "
-                + category.size();
+    private static Event asEvent(final ResultSet rs) throws SQLException {
+        return new Event(rs.getObject("id", UUID.class),
+                rs.getString("title"),
+                rs.getString("description"),
+                rs.getObject("event_date", LocalDateTime.class),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getString("created_by"),
+                rs.getObject("modified_at", LocalDateTime.class),
+                rs.getString("modified_by"));
     }
 
     private Set<ConstraintViolation<Event>> isValidEvent(final Event event) {
@@ -601,6 +1903,72 @@ public class EventService {
         return violations;
     }
 
+    /**
+     * Runs a public method as the Invocation of the thread, which tags its
+     * statements, and records its metrics. Methods called from another
+     * public method are recorded as part of the caller. Without metrics
+     * and tracing the method is just called.
+     * @param method name of the method
+     * @param operation body of the method
+     * @return result of the method
+     * @param <T>
+     * @throws SQLException
+     */
+    private <T> T measured(final String method,
+                           final Operation<T> operation)
+            throws SQLException {
+        if (!this.tracked) {
+            return operation.call();
+        }
+        final Invocation invocation = Invocation.begin(method);
+        if (invocation == null) {
+            return operation.call();
+        }
+        Exception failure = null;
+        try {
+            return operation.call();
+        } catch (SQLException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            invocation.end();
+            if (this.metrics != EventMetrics.NONE) {
+                this.metrics.record(method, invocation.elapsedNanos(),
+                        invocation.statements(), invocation.rowsRead(),
+                        invocation.rowsWritten(), failure);
+            }
+        }
+    }
+
+    /**
+     * Body of a public method.
+     * @param <T>
+     */
+    @FunctionalInterface
+    private interface Operation<T> {
+        /**
+         * Calls the body.
+         * @return result
+         * @throws SQLException
+         */
+        T call() throws SQLException;
+    }
+
+    /**
+     * Unit of work executed on a connection.
+     * @param <T>
+     */
+    @FunctionalInterface
+    private interface Work<T> {
+        /**
+         * Applies the work.
+         * @param connection
+         * @return result
+         * @throws SQLException
+         */
+        T apply(Connection connection) throws SQLException;
+    }
+
     private static ConstraintViolation<Event> getConstraintViolation(
             final Event event,
             final String message) {
@@ -0,0 +1,117 @@
+package com.gurukulams.event.service;
+
+/**
+ * Call of a public method of {@link EventService} on the current thread,
+ * counting the statements it executes and the rows they read and write.
+ */
+final class Invocation {
+
+    /**
+     * Invocation of the current thread.
+     */
+    private static final ThreadLocal<Invocation> CURRENT =
+            new ThreadLocal<>();
+
+    /**
+     * Name of the method.
+     */
+    private final String method;
+
+    /**
+     * Nano time of the start.
+     */
+    private final long startedAt = System.nanoTime();
+
+    /**
+     * Nano time of the end.
+     */
+    private long endedAt;
+
+    /**
+     * Number of statements executed.
+     */
+    private int statements;
+
+    /**
+     * Number of rows read.
+     */
+    private long rowsRead;
+
+    /**
+     * Number of rows written.
+     */
+    private long rowsWritten;
+
+    private Invocation(final String theMethod) {
+        this.method = theMethod;
+    }
+
+    /**
+     * Begins an invocation on the current thread.
+     *
+     * @param method name of the method
+     * @return the invocation, null if one is in progress
+     */
+    static Invocation begin(final String method) {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        Invocation invocation = new Invocation(method);
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    /**
+     * Gets invocation in progress on the current thread.
+     *
+     * @return the invocation, null if none
+     */
+    static Invocation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Ends the invocation.
+     */
+    void end() {
+        endedAt = System.nanoTime();
+        CURRENT.remove();
+    }
+
+    /**
+     * Counts an executed statement.
+     *
+     * @param rows number of rows written
+     */
+    void executed(final long rows) {
+        statements++;
+        rowsWritten += rows;
+    }
+
+    /**
+     * Counts a row read.
+     */
+    void read() {
+        rowsRead++;
+    }
+
+    String method() {
+        return method;
+    }
+
+    long elapsedNanos() {
+        return endedAt - startedAt;
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    long rowsRead() {
+        return rowsRead;
+    }
+
+    long rowsWritten() {
+        return rowsWritten;
+    }
+}
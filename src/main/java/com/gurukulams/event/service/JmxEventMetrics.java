@@ -0,0 +1,221 @@
+package com.gurukulams.event.service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exports metrics of {@link EventService} as one MXBean per method, named
+ * {@code com.gurukulams.event:type=EventService,name=<name>,method=<method>}.
+ */
+public final class JmxEventMetrics implements EventMetrics, AutoCloseable {
+
+    /**
+     * Logger.
+     */
+    private static final System.Logger LOGGER =
+            System.getLogger(JmxEventMetrics.class.getName());
+
+    /**
+     * Percentile of median.
+     */
+    private static final double P50 = 50;
+
+    /**
+     * Percentile of p99.
+     */
+    private static final double P99 = 99;
+
+    /**
+     * Percentile of p999.
+     */
+    private static final double P999 = 99.9;
+
+    /**
+     * Name of the EventService.
+     */
+    private final String name;
+
+    /**
+     * MBean Server.
+     */
+    private final MBeanServer server;
+
+    /**
+     * Metrics by method.
+     */
+    private final Map<String, MethodMetrics> methods =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Builds a new JMX Event metrics.
+     *
+     * @param theName name of the EventService, unique in the JVM
+     */
+    public JmxEventMetrics(final String theName) {
+        this.name = theName;
+        this.server = ManagementFactory.getPlatformMBeanServer();
+    }
+
+    @Override
+    public void record(final String method,
+                       final long elapsedNanos,
+                       final int statements,
+                       final long rowsRead,
+                       final long rowsWritten,
+                       final Exception failure) {
+        MethodMetrics metrics = methods.get(method);
+        if (metrics == null) {
+            metrics = methods.computeIfAbsent(method, this::register);
+        }
+        metrics.record(elapsedNanos, statements, rowsRead, rowsWritten,
+                failure);
+    }
+
+    /**
+     * Gets metrics of a method.
+     *
+     * @param method name of the method
+     * @return the metrics, null if never called
+     */
+    public EventMethodMXBean method(final String method) {
+        return methods.get(method);
+    }
+
+    /**
+     * Unregisters the MXBeans.
+     */
+    @Override
+    public void close() {
+        for (String method : methods.keySet()) {
+            try {
+                server.unregisterMBean(objectName(method));
+            } catch (JMException e) {
+                LOGGER.log(System.Logger.Level.DEBUG,
+                        "Unable to unregister " + method, e);
+            }
+        }
+        methods.clear();
+    }
+
+    private MethodMetrics register(final String method) {
+        MethodMetrics metrics = new MethodMetrics();
+        try {
+            server.registerMBean(metrics, objectName(method));
+        } catch (JMException e) {
+            LOGGER.log(System.Logger.Level.WARNING,
+                    "Unable to register " + method, e);
+        }
+        return metrics;
+    }
+
+    private ObjectName objectName(final String method) throws JMException {
+        return new ObjectName("com.gurukulams.event:type=EventService,name="
+                + ObjectName.quote(name) + ",method=" + method);
+    }
+
+    /**
+     * Metrics of a method.
+     */
+    private static final class MethodMetrics implements EventMethodMXBean {
+
+        /**
+         * Latencies.
+         */
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        /**
+         * Number of failures by exception.
+         */
+        private final Map<String, LongAdder> failures =
+                new ConcurrentHashMap<>();
+
+        /**
+         * Number of failures.
+         */
+        private final LongAdder failureCount = new LongAdder();
+
+        /**
+         * Number of statements.
+         */
+        private final LongAdder statements = new LongAdder();
+
+        /**
+         * Number of rows read.
+         */
+        private final LongAdder rowsRead = new LongAdder();
+
+        /**
+         * Number of rows written.
+         */
+        private final LongAdder rowsWritten = new LongAdder();
+
+        void record(final long elapsedNanos,
+                    final int theStatements,
+                    final long theRowsRead,
+                    final long theRowsWritten,
+                    final Exception failure) {
+            latencies.record(elapsedNanos);
+            statements.add(theStatements);
+            rowsRead.add(theRowsRead);
+            rowsWritten.add(theRowsWritten);
+            if (failure != null) {
+                failureCount.increment();
+                failures.computeIfAbsent(failure.getClass().getSimpleName(),
+                        k -> new LongAdder()).increment();
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return latencies.count();
+        }
+
+        @Override
+        public long getFailureCount() {
+            return failureCount.sum();
+        }
+
+        @Override
+        public Map<String, Long> getFailures() {
+            Map<String, Long> counts = new TreeMap<>();
+            failures.forEach((type, count) -> counts.put(type, count.sum()));
+            return counts;
+        }
+
+        @Override
+        public long getStatementCount() {
+            return statements.sum();
+        }
+
+        @Override
+        public long getRowsRead() {
+            return rowsRead.sum();
+        }
+
+        @Override
+        public long getRowsWritten() {
+            return rowsWritten.sum();
+        }
+
+        @Override
+        public long getLatencyP50Micros() {
+            return latencies.percentile(P50);
+        }
+
+        @Override
+        public long getLatencyP99Micros() {
+            return latencies.percentile(P99);
+        }
+
+        @Override
+        public long getLatencyP999Micros() {
+            return latencies.percentile(P999);
+        }
+    }
+}
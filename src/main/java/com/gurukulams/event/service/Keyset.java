@@ -0,0 +1,52 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.model.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of an Event in event date order.
+ *
+ * @param eventDate the event date
+ * @param id        the id
+ */
+record Keyset(LocalDateTime eventDate, UUID id) {
+
+    /**
+     * Keyset of an Event.
+     * @param event
+     * @return keyset
+     */
+    static Keyset of(final Event event) {
+        return new Keyset(event.eventDate(), event.id());
+    }
+
+    /**
+     * Parses the token.
+     * @param token
+     * @return keyset
+     */
+    static Keyset of(final String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder()
+                    .decode(token), StandardCharsets.UTF_8).split("/");
+            return new Keyset(LocalDateTime.parse(parts[0]),
+                    UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+    }
+
+    /**
+     * Opaque token of the keyset.
+     * @return token
+     */
+    String token() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((eventDate + "/" + id)
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,108 @@
+package com.gurukulams.event.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free log-linear histogram of latencies in microseconds.
+ * Values below 64 are exact, above that each power of two is split into
+ * 32 buckets, bounding the error of a percentile to about 3%.
+ */
+final class LatencyHistogram {
+
+    /**
+     * Values below this are counted exactly.
+     */
+    private static final int LINEAR = 64;
+
+    /**
+     * Buckets per power of two above LINEAR.
+     */
+    private static final int SUB_BUCKETS = 32;
+
+    /**
+     * log2 of SUB_BUCKETS.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * log2 of LINEAR.
+     */
+    private static final int LINEAR_BITS = 6;
+
+    /**
+     * Nanos in a micro.
+     */
+    private static final long NANOS_PER_MICRO = 1_000;
+
+    /**
+     * Percentile of all the latencies.
+     */
+    private static final double HUNDRED = 100;
+
+    /**
+     * Counts by bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(
+            LINEAR + (Long.SIZE - LINEAR_BITS) * SUB_BUCKETS);
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanos
+     */
+    void record(final long nanos) {
+        counts.incrementAndGet(index(Math.max(0, nanos / NANOS_PER_MICRO)));
+    }
+
+    /**
+     * Number of recorded latencies.
+     *
+     * @return the count
+     */
+    long count() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Latency at the percentile.
+     *
+     * @param percentile 0 to 100
+     * @return upper bound of the bucket in micros
+     */
+    long percentile(final double percentile) {
+        long total = count();
+        long rank = (long) Math.ceil(total * percentile / HUNDRED);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank && seen > 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    private static int index(final long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS))
+                & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - LINEAR_BITS) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(final int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int exponent = (index - LINEAR) / SUB_BUCKETS + LINEAR_BITS;
+        int sub = (index - LINEAR) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1)
+                << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
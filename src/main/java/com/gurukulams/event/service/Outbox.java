@@ -0,0 +1,227 @@
+package com.gurukulams.event.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outbox of the changes of Events. Changes are appended in the
+ * transaction of the change, so a change is read if and only if it is
+ * committed. Sequence numbers are taken before commit, and a transaction
+ * may commit a lower number after a higher one was read. Changes are
+ * therefore ordered by the id of their transaction first, and read only
+ * once every transaction with a lower id has finished, so that no change
+ * is committed before a position after it was read. Changes of an Event
+ * are in the order they were made.
+ */
+final class Outbox {
+
+    /**
+     * Append a change.
+     */
+    private static final String APPEND = """
+            insert into events_outbox(tx_id, event_id, change,
+                user_handle, changed_at)
+            values (txid_current(), ?, ?, ?, current_timestamp)
+            """;
+
+    /**
+     * Append a change for each user, in the order given.
+     */
+    private static final String APPEND_ALL = """
+            insert into events_outbox(tx_id, event_id, change,
+                user_handle, changed_at)
+            select txid_current(), ?, ?, u.user_handle, current_timestamp
+            from unnest(?) with ordinality as u(user_handle, n)
+            order by u.n
+            """;
+
+    /**
+     * Append expiry of Events.
+     */
+    private static final String APPEND_EXPIRED = """
+            insert into events_outbox(tx_id, event_id, change, changed_at)
+            select txid_current(), id, 'EXPIRED', current_timestamp
+            from events where id = any(?) order by id
+            """;
+
+    /**
+     * Changes after a position, of finished transactions only.
+     */
+    private static final String READ = """
+            select tx_id, seq, event_id, change, user_handle, changed_at
+            from events_outbox
+            where (tx_id, seq) > (?, ?)
+            and tx_id < txid_snapshot_xmin(txid_current_snapshot())
+            order by tx_id, seq
+            limit ?
+            """;
+
+    /**
+     * Delete a chunk of changes made before the cutoff.
+     */
+    private static final String COMPACT = """
+            delete from events_outbox where (tx_id, seq) in (
+                select tx_id, seq from events_outbox
+                where changed_at < ? limit ?)
+            """;
+
+    private Outbox() {
+    }
+
+    /**
+     * Appends a change.
+     *
+     * @param connection the connection
+     * @param eventId    the eventId
+     * @param type       the type of change
+     * @param userName   the username
+     * @throws SQLException
+     */
+    static void append(final Connection connection,
+                       final UUID eventId,
+                       final ChangeType type,
+                       final String userName) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(APPEND)) {
+            int index = 1;
+            ps.setObject(index++, eventId);
+            ps.setString(index++, type.name());
+            ps.setString(index, userName);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Appends a change for each user as one statement.
+     *
+     * @param connection the connection
+     * @param eventId    the eventId
+     * @param type       the type of change
+     * @param userNames  the usernames
+     * @throws SQLException
+     */
+    static void appendAll(final Connection connection,
+                          final UUID eventId,
+                          final ChangeType type,
+                          final List<String> userNames)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(APPEND_ALL)) {
+            int index = 1;
+            ps.setObject(index++, eventId);
+            ps.setString(index++, type.name());
+            ps.setArray(index, connection.createArrayOf("varchar",
+                    userNames.toArray()));
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Appends expiry of Events, before they are removed.
+     *
+     * @param connection the connection
+     * @param ids        the event ids
+     * @throws SQLException
+     */
+    static void appendExpired(final Connection connection,
+                              final Array ids) throws SQLException {
+        try (PreparedStatement ps =
+                     connection.prepareStatement(APPEND_EXPIRED)) {
+            ps.setArray(1, ids);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads changes after a position.
+     *
+     * @param connection the connection
+     * @param after      the position, null to read from the first change
+     * @param size       maximum number of changes
+     * @return the changes
+     * @throws SQLException
+     */
+    static Changes read(final Connection connection,
+                        final String after,
+                        final int size) throws SQLException {
+        long txId = 0;
+        long sequence = 0;
+        if (after != null) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder()
+                        .decode(after), StandardCharsets.UTF_8).split("/");
+                txId = Long.parseLong(parts[0]);
+                sequence = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid position", e);
+            }
+        }
+        List<EventChange> changes = new ArrayList<>(size);
+        String position = after;
+        try (PreparedStatement ps = connection.prepareStatement(READ)) {
+            int index = 1;
+            ps.setLong(index++, txId);
+            ps.setLong(index++, sequence);
+            ps.setInt(index, size);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    index = 1;
+                    position = position(rs.getLong(index++),
+                            rs.getLong(index++));
+                    changes.add(new EventChange(position,
+                            rs.getObject(index++, UUID.class),
+                            ChangeType.valueOf(rs.getString(index++)),
+                            rs.getString(index++),
+                            rs.getObject(index, LocalDateTime.class)));
+                }
+            }
+        }
+        return new Changes(changes, position);
+    }
+
+    /**
+     * Opaque position of a change.
+     *
+     * @param txId     the transaction id
+     * @param sequence the sequence number
+     * @return the position
+     */
+    private static String position(final long txId, final long sequence) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((txId + "/" + sequence)
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deletes changes made before the cutoff in chunks, each in its own
+     * transaction when the connection auto commits.
+     *
+     * @param connection the connection
+     * @param cutoff     changes before this are deleted
+     * @param chunkSize  maximum number of changes per statement
+     * @return number of changes deleted
+     * @throws SQLException
+     */
+    static int compact(final Connection connection,
+                       final LocalDateTime cutoff,
+                       final int chunkSize) throws SQLException {
+        int compacted = 0;
+        int chunk;
+        try (PreparedStatement ps = connection.prepareStatement(COMPACT)) {
+            do {
+                ps.setObject(1, cutoff);
+                ps.setInt(2, chunkSize);
+                chunk = ps.executeUpdate();
+                compacted += chunk;
+            } while (chunk == chunkSize);
+        }
+        return compacted;
+    }
+}
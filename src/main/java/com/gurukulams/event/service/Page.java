@@ -0,0 +1,22 @@
+package com.gurukulams.event.service;
+
+import java.util.List;
+
+/**
+ * A Page of results.
+ *
+ * @param items the items of the page
+ * @param next  opaque token to fetch the next page, null on the last page
+ * @param <T>   the type of the items
+ */
+public record Page<T>(List<T> items, String next) {
+
+    /**
+     * Is there a next page.
+     *
+     * @return the boolean
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,896 @@
+package com.gurukulams.event.service;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of connections of a {@link DataSource}.
+ * A borrow takes a permit and the most recently returned idle connection,
+ * both without locking. Connections idle for long are validated before
+ * being handed out, prepared statements are cached per connection by
+ * their SQL text (constant for the queries of {@link EventService}) and
+ * connections held longer than the leak threshold are logged with the
+ * stack trace of their borrower. Connections are returned to the pool in
+ * the state they were handed out: open transactions are rolled back,
+ * changed session settings are restored, cached statements lose their
+ * limits and a session changed by {@code SET} is reset with
+ * {@code RESET ALL}, or discarded where that is not supported.
+ */
+public final class PooledDataSource implements DataSource, AutoCloseable {
+
+    /**
+     * Logger.
+     */
+    private static final System.Logger LOGGER =
+            System.getLogger(PooledDataSource.class.getName());
+
+    /**
+     * Default time to wait for a connection.
+     */
+    private static final Duration BORROW_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Default number of cached statements per connection.
+     */
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    /**
+     * Connections used within this window are not validated on borrow.
+     */
+    private static final long VALIDATION_BYPASS_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * Time allowed for validation of a connection.
+     */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    /**
+     * Load factor of statement caches.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Resets the settings of a session.
+     */
+    private static final String RESET_ALL = "RESET ALL";
+
+    /**
+     * Starts SQL that changes the settings of a session.
+     */
+    private static final String SET = "set";
+
+    /**
+     * Connection methods that change the session, restored on return.
+     */
+    private static final Set<String> SESSION_SETTERS = Set.of(
+            "setReadOnly", "setTransactionIsolation", "setCatalog",
+            "setSchema");
+
+    /**
+     * Pooled DataSource.
+     */
+    private final DataSource dataSource;
+
+    /**
+     * Time to wait for a connection in nanos.
+     */
+    private final long borrowTimeoutNanos;
+
+    /**
+     * Connections held longer are reported as leaked, zero to disable.
+     */
+    private final long leakThresholdNanos;
+
+    /**
+     * Maximum number of cached statements per connection.
+     */
+    private final int statementCacheSize;
+
+    /**
+     * Permits to borrow, one per connection. Not fair, so that a borrow
+     * with a permit available takes it with a compare and set. Waiting
+     * borrows may then be overtaken, up to the borrow timeout.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Idle connections, most recently returned first.
+     */
+    private final Deque<Pooled> idle = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Borrowed connections.
+     */
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Number of physical connections.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Checks for leaks, null when leak detection is disabled.
+     */
+    private final ScheduledExecutorService housekeeper;
+
+    /**
+     * Number of borrows.
+     */
+    private final LongAdder borrows = new LongAdder();
+
+    /**
+     * Number of borrows timed out.
+     */
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Number of leaks detected.
+     */
+    private final LongAdder leaks = new LongAdder();
+
+    /**
+     * Number of statements served from the caches.
+     */
+    private final LongAdder statementHits = new LongAdder();
+
+    /**
+     * Number of statements prepared.
+     */
+    private final LongAdder statementMisses = new LongAdder();
+
+    /**
+     * Is the pool closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Builds a new pool without leak detection.
+     *
+     * @param theDataSource  the data source to pool
+     * @param theMaximumSize maximum number of connections
+     */
+    public PooledDataSource(final DataSource theDataSource,
+                            final int theMaximumSize) {
+        this(theDataSource, theMaximumSize, BORROW_TIMEOUT, Duration.ZERO,
+                STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Builds a new pool.
+     *
+     * @param theDataSource         the data source to pool
+     * @param theMaximumSize        maximum number of connections
+     * @param theBorrowTimeout      time to wait for a connection
+     * @param theLeakThreshold      connections held longer are reported as
+     *                              leaked, zero to disable
+     * @param theStatementCacheSize maximum number of cached statements per
+     *                              connection, zero to disable
+     */
+    public PooledDataSource(final DataSource theDataSource,
+                            final int theMaximumSize,
+                            final Duration theBorrowTimeout,
+                            final Duration theLeakThreshold,
+                            final int theStatementCacheSize) {
+        if (theMaximumSize < 1 || theBorrowTimeout.isNegative()
+                || theLeakThreshold.isNegative()
+                || theStatementCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid pool settings");
+        }
+        this.dataSource = theDataSource;
+        this.borrowTimeoutNanos = theBorrowTimeout.toNanos();
+        this.leakThresholdNanos = theLeakThreshold.toNanos();
+        this.statementCacheSize = theStatementCacheSize;
+        this.permits = new Semaphore(theMaximumSize);
+        if (theLeakThreshold.isZero()) {
+            this.housekeeper = null;
+        } else {
+            this.housekeeper = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("pool-housekeeper")
+                            .daemon().factory());
+            long interval = Math.max(1, theLeakThreshold.toMillis() / 2);
+            this.housekeeper.scheduleWithFixedDelay(this::detectLeaks,
+                    interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Borrows a connection, to be returned by closing it.
+     *
+     * @return the connection
+     * @throws SQLException if no connection is available in time
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutNanos,
+                    TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                        "Timed out waiting for a connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a connection", e);
+        }
+        try {
+            Pooled pooled = idle.pollFirst();
+            while (pooled != null && !isAlive(pooled)) {
+                discard(pooled);
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                pooled = new Pooled(dataSource.getConnection());
+                size.incrementAndGet();
+            }
+            Lease lease = new Lease(pooled);
+            leases.add(lease);
+            borrows.increment();
+            return lease.proxy();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Not supported, credentials are those of the pooled data source.
+     *
+     * @param username the user name
+     * @param password the password
+     * @return never
+     * @throws SQLException always
+     */
+    @Override
+    public Connection getConnection(final String username,
+                                    final String password)
+            throws SQLException {
+        throw new SQLFeatureNotSupportedException(
+                "Pooled connections share the credentials");
+    }
+
+    /**
+     * Closes the idle connections. Borrowed connections are closed when
+     * returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+        drain();
+    }
+
+    /**
+     * Number of physical connections.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Number of borrowed connections.
+     *
+     * @return the active count
+     */
+    public int activeCount() {
+        return leases.size();
+    }
+
+    /**
+     * Number of idle connections.
+     *
+     * @return the idle count
+     */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Number of threads waiting for a connection.
+     *
+     * @return the waiting count
+     */
+    public int waitingCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Number of connections borrowed.
+     *
+     * @return the borrow count
+     */
+    public long borrowCount() {
+        return borrows.sum();
+    }
+
+    /**
+     * Number of borrows timed out.
+     *
+     * @return the timeout count
+     */
+    public long timeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Number of connections reported as leaked.
+     *
+     * @return the leak count
+     */
+    public long leakCount() {
+        return leaks.sum();
+    }
+
+    /**
+     * Number of prepared statements served from the caches.
+     *
+     * @return the hit count
+     */
+    public long statementHitCount() {
+        return statementHits.sum();
+    }
+
+    /**
+     * Number of statements prepared on the connections.
+     *
+     * @return the miss count
+     */
+    public long statementMissCount() {
+        return statementMisses.sum();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(final PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(final int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this)
+                : dataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+    }
+
+    private boolean isAlive(final Pooled pooled) {
+        if (System.nanoTime() - pooled.lastUsed < VALIDATION_BYPASS_NANOS) {
+            return true;
+        }
+        try {
+            return pooled.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the connection of a lease to the pool.
+     *
+     * @param lease the lease
+     */
+    private void release(final Lease lease) {
+        leases.remove(lease);
+        Pooled pooled = lease.pooled;
+        boolean reusable;
+        try {
+            if (!pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            if (lease.reset) {
+                try (Statement statement =
+                             pooled.connection.createStatement()) {
+                    statement.execute(RESET_ALL);
+                }
+            }
+            if (lease.configured) {
+                pooled.restore();
+            }
+            pooled.connection.clearWarnings();
+            reusable = !closed && !pooled.connection.isClosed();
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        if (reusable) {
+            pooled.lastUsed = System.nanoTime();
+            idle.offerFirst(pooled);
+            if (closed) {
+                drain();
+            }
+        } else {
+            discard(pooled);
+        }
+        permits.release();
+    }
+
+    private void drain() {
+        Pooled pooled = idle.pollFirst();
+        while (pooled != null) {
+            discard(pooled);
+            pooled = idle.pollFirst();
+        }
+    }
+
+    private void discard(final Pooled pooled) {
+        size.decrementAndGet();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(System.Logger.Level.DEBUG,
+                    "Unable to close connection", e);
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        for (Lease lease : leases) {
+            if (!lease.reported
+                    && now - lease.borrowedAt > leakThresholdNanos) {
+                lease.reported = true;
+                leaks.increment();
+                LOGGER.log(System.Logger.Level.WARNING,
+                        "Connection held for "
+                                + TimeUnit.NANOSECONDS.toMillis(
+                                        now - lease.borrowedAt)
+                                + " ms, possible leak by", lease.borrower);
+            }
+        }
+    }
+
+    /**
+     * Does the SQL change the settings of the session.
+     *
+     * @param sql the sql
+     * @return true for a SET statement
+     */
+    private static boolean isSet(final String sql) {
+        String statement = sql.stripLeading();
+        return statement.length() > SET.length()
+                && statement.regionMatches(true, 0, SET, 0, SET.length())
+                && Character.isWhitespace(statement.charAt(SET.length()));
+    }
+
+    private static Object invoke(final Object target,
+                                 final Method method,
+                                 final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Physical Connection with its cached statements.
+     */
+    private final class Pooled {
+
+        /**
+         * Physical connection.
+         */
+        private final Connection connection;
+
+        /**
+         * Idle prepared statements by SQL, least recently used first.
+         */
+        private final Map<String, PreparedStatement> statements;
+
+        /**
+         * Nano time of the last return to the pool.
+         */
+        private long lastUsed = System.nanoTime();
+
+        /**
+         * Session settings as opened, read before the first change.
+         */
+        private Session session;
+
+        /**
+         * Limits of a fresh statement, read from the first one prepared.
+         */
+        private Limits limits;
+
+        Pooled(final Connection theConnection) {
+            this.connection = theConnection;
+            this.statements = new LinkedHashMap<>(statementCacheSize,
+                    LOAD_FACTOR, true);
+        }
+
+        /**
+         * Takes the cached statement of the SQL or prepares it.
+         *
+         * @param sql the sql
+         * @return the statement
+         * @throws SQLException if the statement is invalid
+         */
+        PreparedStatement take(final String sql) throws SQLException {
+            PreparedStatement statement = statements.remove(sql);
+            if (statement == null || statement.isClosed()) {
+                statementMisses.increment();
+                statement = connection.prepareStatement(sql);
+                if (limits == null) {
+                    limits = new Limits(statement.getFetchSize(),
+                            statement.getMaxRows(),
+                            statement.getQueryTimeout());
+                }
+                return statement;
+            }
+            statementHits.increment();
+            return statement;
+        }
+
+        /**
+         * Caches the statement of the SQL for reuse, evicting the least
+         * recently used one beyond the cache size. A statement of the SQL
+         * already cached is closed instead.
+         *
+         * @param sql       the sql
+         * @param statement the statement
+         * @throws SQLException if the statement cannot be reset
+         */
+        void give(final String sql, final PreparedStatement statement)
+                throws SQLException {
+            if (statements.containsKey(sql) || statement.isClosed()) {
+                statement.close();
+                return;
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            statement.setMaxRows(limits.maxRows());
+            statement.setFetchSize(limits.fetchSize());
+            statement.setQueryTimeout(limits.queryTimeout());
+            statements.put(sql, statement);
+            if (statements.size() > statementCacheSize) {
+                Iterator<PreparedStatement> eldest =
+                        statements.values().iterator();
+                eldest.next().close();
+                eldest.remove();
+            }
+        }
+
+        /**
+         * Reads the session settings, once before they are first changed.
+         *
+         * @throws SQLException if the settings cannot be read
+         */
+        void remember() throws SQLException {
+            if (session == null) {
+                session = new Session(connection.isReadOnly(),
+                        connection.getTransactionIsolation(),
+                        connection.getCatalog(), connection.getSchema());
+            }
+        }
+
+        /**
+         * Restores the session settings read by {@link #remember()}.
+         *
+         * @throws SQLException if the settings cannot be restored
+         */
+        void restore() throws SQLException {
+            connection.setReadOnly(session.readOnly());
+            connection.setTransactionIsolation(session.isolation());
+            if (session.catalog() != null) {
+                connection.setCatalog(session.catalog());
+            }
+            if (session.schema() != null) {
+                connection.setSchema(session.schema());
+            }
+        }
+    }
+
+    /**
+     * Session settings of a connection.
+     *
+     * @param readOnly  is the connection read only
+     * @param isolation the transaction isolation
+     * @param catalog   the catalog
+     * @param schema    the schema
+     */
+    private record Session(boolean readOnly, int isolation, String catalog,
+                           String schema) {
+    }
+
+    /**
+     * Limits of a statement.
+     *
+     * @param fetchSize    the fetch size
+     * @param maxRows      the maximum number of rows
+     * @param queryTimeout the query timeout in seconds
+     */
+    private record Limits(int fetchSize, int maxRows, int queryTimeout) {
+    }
+
+    /**
+     * Borrowed Connection, returned to the pool on close.
+     */
+    private final class Lease implements InvocationHandler {
+
+        /**
+         * Pooled connection.
+         */
+        private final Pooled pooled;
+
+        /**
+         * Connection handed out.
+         */
+        private final Connection proxy;
+
+        /**
+         * Nano time of the borrow.
+         */
+        private final long borrowedAt = System.nanoTime();
+
+        /**
+         * Stack trace of the borrower, null without leak detection.
+         */
+        private final Throwable borrower;
+
+        /**
+         * Statements opened through the lease and not closed yet.
+         */
+        private final Set<Statement> opened =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * Is the lease reported as leaked.
+         */
+        private volatile boolean reported;
+
+        /**
+         * Is the connection returned.
+         */
+        private boolean returned;
+
+        /**
+         * Were session settings changed through the lease.
+         */
+        private boolean configured;
+
+        /**
+         * Was SQL that changes the session run through the lease.
+         */
+        private boolean reset;
+
+        Lease(final Pooled thePooled) {
+            this.pooled = thePooled;
+            this.borrower = housekeeper == null ? null
+                    : new Throwable("Borrowed here");
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        Connection proxy() {
+            return proxy;
+        }
+
+        @Override
+        public Object invoke(final Object target,
+                             final Method method,
+                             final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return returned;
+                case "equals":
+                    return target == args[0];
+                case "hashCode":
+                    return System.identityHashCode(target);
+                case "toString":
+                    return "Pooled " + pooled.connection;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection is closed");
+            }
+            if (method.getName().equals("unwrap")
+                    && ((Class<?>) args[0]).isInstance(proxy)) {
+                // Never the physical connection, which could be closed
+                // behind the pool
+                return proxy;
+            }
+            if (SESSION_SETTERS.contains(method.getName())) {
+                pooled.remember();
+                configured = true;
+            } else if (method.getName().startsWith("prepare")
+                    && isSet((String) args[0])) {
+                reset = true;
+            }
+            if (statementCacheSize > 0
+                    && method.getName().equals("prepareStatement")
+                    && args.length == 1) {
+                String sql = (String) args[0];
+                Cached cached = new Cached(sql, pooled.take(sql));
+                opened.add(cached.proxy());
+                return cached.proxy();
+            }
+            Object result = PooledDataSource.invoke(pooled.connection,
+                    method, args);
+            if (result instanceof Statement statement) {
+                opened.add(statement);
+                return watched(method.getReturnType(), statement);
+            }
+            return result;
+        }
+
+        /**
+         * Watches a statement for its close, and the SQL it runs for
+         * {@code SET}.
+         *
+         * @param type      the statement interface
+         * @param statement the statement
+         * @return the statement handed out
+         */
+        private Statement watched(final Class<?> type,
+                                  final Statement statement) {
+            return (Statement) Proxy.newProxyInstance(
+                    Statement.class.getClassLoader(),
+                    new Class<?>[]{type}, (target, method, args) -> {
+                        switch (method.getName()) {
+                            case "getConnection":
+                                return proxy;
+                            case "close":
+                                opened.remove(statement);
+                                break;
+                            default:
+                                break;
+                        }
+                        if (args != null && args.length > 0
+                                && args[0] instanceof String sql
+                                && isSet(sql)) {
+                            reset = true;
+                        }
+                        return PooledDataSource.invoke(statement, method,
+                                args);
+                    });
+        }
+
+        private void close() {
+            if (!returned) {
+                returned = true;
+                List<Statement> open = new ArrayList<>(opened);
+                opened.clear();
+                for (Statement statement : open) {
+                    try {
+                        statement.close();
+                    } catch (SQLException e) {
+                        LOGGER.log(System.Logger.Level.DEBUG,
+                                "Unable to close statement", e);
+                    }
+                }
+                release(this);
+            }
+        }
+
+        /**
+         * Cached PreparedStatement, returned to the cache on close.
+         */
+        private final class Cached implements InvocationHandler {
+
+            /**
+             * The sql.
+             */
+            private final String sql;
+
+            /**
+             * Physical statement.
+             */
+            private final PreparedStatement statement;
+
+            /**
+             * Statement handed out.
+             */
+            private final PreparedStatement proxy;
+
+            /**
+             * Is the statement returned.
+             */
+            private boolean returned;
+
+            Cached(final String theSql,
+                   final PreparedStatement theStatement) {
+                this.sql = theSql;
+                this.statement = theStatement;
+                this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                        PreparedStatement.class.getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class}, this);
+            }
+
+            PreparedStatement proxy() {
+                return proxy;
+            }
+
+            @Override
+            public Object invoke(final Object target,
+                                 final Method method,
+                                 final Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            opened.remove(proxy);
+                            pooled.give(sql, statement);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned;
+                    case "getConnection":
+                        return Lease.this.proxy;
+                    case "equals":
+                        return target == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(target);
+                    default:
+                        break;
+                }
+                if (returned) {
+                    throw new SQLException("Statement is closed");
+                }
+                return PooledDataSource.invoke(statement, method, args);
+            }
+        }
+    }
+}
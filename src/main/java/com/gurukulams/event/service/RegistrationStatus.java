@@ -0,0 +1,27 @@
+package com.gurukulams.event.service;
+
+/**
+ * Outcome of a registration for an Event.
+ */
+public enum RegistrationStatus {
+    /**
+     * Registered, holding a seat if the Event is seat-limited.
+     */
+    REGISTERED,
+    /**
+     * Was registered already.
+     */
+    ALREADY_REGISTERED,
+    /**
+     * Seats are over, added to the waitlist.
+     */
+    WAITLISTED,
+    /**
+     * Seats are over, was in the waitlist already.
+     */
+    ALREADY_WAITLISTED,
+    /**
+     * Not registered, the owner of an Event cannot register for it.
+     */
+    REJECTED
+}
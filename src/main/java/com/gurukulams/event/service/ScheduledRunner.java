@@ -0,0 +1,95 @@
+package com.gurukulams.event.service;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Runner of a background task on its own scheduler thread. A failed run
+ * is logged and the task is run again on the next one.
+ */
+final class ScheduledRunner implements Runnable, AutoCloseable {
+
+    /**
+     * Logger.
+     */
+    private static final System.Logger LOGGER =
+            System.getLogger(ScheduledRunner.class.getName());
+
+    /**
+     * Name of the task and its thread.
+     */
+    private final String name;
+
+    /**
+     * The task, returning the number of items it handled.
+     */
+    private final IntSupplier task;
+
+    /**
+     * Scheduler of the runs.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Number of items handled.
+     */
+    private final LongAdder handled = new LongAdder();
+
+    /**
+     * Builds a new Scheduled runner.
+     *
+     * @param theName name of the task and its thread
+     * @param theTask the task, returning the number of items it handled
+     */
+    ScheduledRunner(final String theName, final IntSupplier theTask) {
+        this.name = theName;
+        this.task = theTask;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name(theName).daemon().factory());
+    }
+
+    /**
+     * Starts running periodically.
+     *
+     * @param interval the interval between runs
+     */
+    void start(final Duration interval) {
+        this.scheduler.scheduleWithFixedDelay(this,
+                interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the task once.
+     */
+    @Override
+    public void run() {
+        try {
+            handled.add(task.getAsInt());
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING,
+                    "Unable to run " + name, e);
+        }
+    }
+
+    /**
+     * Number of items handled.
+     *
+     * @return the count
+     */
+    long handledCount() {
+        return handled.sum();
+    }
+
+    /**
+     * Stops running.
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+}
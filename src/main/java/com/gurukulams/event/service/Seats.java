@@ -0,0 +1,794 @@
+package com.gurukulams.event.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Registrations of Events: learners, their feeds, registration counters,
+ * seats and waitlist of seat-limited Events, and their changes in the
+ * outbox.
+ * Available seats of an Event are split across counter rows (stripes).
+ * A registration takes a seat from the stripe of the user with a
+ * conditional decrement, so that concurrent registrations rarely wait on
+ * the same row and never count the learners. Events without seat rows
+ * are not seat-limited. Lowering the seats below the learners leaves the
+ * stripes negative, and unregistrations pay that back before any seat is
+ * released. Registration counts are kept the same way, in
+ * counter rows updated along with the learners. All methods run in the
+ * transaction of the given connection.
+ */
+final class Seats {
+
+    /**
+     * Number of seat counter rows of a seat-limited Event.
+     */
+    private static final int STRIPES = 8;
+
+    /**
+     * Register a learner, ignoring if already registered.
+     */
+    private static final String INSERT_LEARNER = """
+            insert into events_learner(event_id, user_handle)
+            values (?, ?) on conflict do nothing
+            """;
+
+    /**
+     * Unregister a learner.
+     */
+    private static final String DELETE_LEARNER =
+            "delete from events_learner where event_id = ? and user_handle = ?";
+
+    /**
+     * Seat stripes of an Event, most available first.
+     */
+    private static final String SELECT_SEATS = """
+            select stripe, available from events_seat
+            where event_id = ? order by available desc
+            """;
+
+    /**
+     * Unregister learners.
+     */
+    private static final String DELETE_LEARNERS = """
+            delete from events_learner
+            where event_id = ? and user_handle = any(?)
+            """;
+
+    /**
+     * Lock seat stripes of an Event, always in the same order.
+     */
+    private static final String SEATS_FOR_UPDATE = """
+            select stripe, available from events_seat
+            where event_id = ? order by stripe for update
+            """;
+
+    /**
+     * Take a seat from a stripe.
+     */
+    private static final String TAKE_SEAT = """
+            update events_seat set available = available - 1
+            where event_id = ? and stripe = ? and available > 0
+            """;
+
+    /**
+     * Release a seat to a stripe.
+     */
+    private static final String RELEASE_SEAT = """
+            update events_seat set available = available + 1
+            where event_id = ? and stripe = ?
+            """;
+
+    /**
+     * Insert a seat stripe.
+     */
+    private static final String INSERT_SEAT = """
+            insert into events_seat(event_id, stripe, available)
+            values (?, ?, ?)
+            """;
+
+    /**
+     * Set the seats of a stripe.
+     */
+    private static final String UPDATE_SEAT = """
+            update events_seat set available = ?
+            where event_id = ? and stripe = ?
+            """;
+
+    /**
+     * Available seats of an Event.
+     */
+    private static final String AVAILABLE_SEATS =
+            "select sum(available) from events_seat where event_id = ?";
+
+    /**
+     * Add a registered learner to the feed of the learner.
+     */
+    private static final String INSERT_FEED = """
+            insert into events_feed(event_id, user_handle, event_date)
+            select l.event_id, l.user_handle, c.event_date
+            from events_learner l join events c on c.id = l.event_id
+            where l.event_id = ? and l.user_handle = ?
+            on conflict do nothing
+            """;
+
+    /**
+     * Add registered learners to their feeds.
+     */
+    private static final String INSERT_ALL_FEEDS = """
+            insert into events_feed(event_id, user_handle, event_date)
+            select l.event_id, l.user_handle, c.event_date
+            from events_learner l join events c on c.id = l.event_id
+            where l.event_id = ? and l.user_handle = any(?)
+            on conflict do nothing
+            """;
+
+    /**
+     * Remove an Event from the feed of a learner.
+     */
+    private static final String DELETE_FEED =
+            "delete from events_feed where event_id = ? and user_handle = ?";
+
+    /**
+     * Add to the registration counter of a stripe.
+     */
+    private static final String UPDATE_REGISTRATIONS = """
+            update events_registration set registered = registered + ?
+            where event_id = ? and stripe = ?
+            """;
+
+    /**
+     * Insert the registration counter of a stripe.
+     */
+    private static final String INSERT_REGISTRATIONS = """
+            insert into events_registration(registered, event_id, stripe)
+            values (?, ?, ?) on conflict do nothing
+            """;
+
+    /**
+     * Registration counts of Events.
+     */
+    private static final String SELECT_REGISTRATIONS = """
+            select event_id, sum(registered) from events_registration
+            where event_id = any(?) group by event_id
+            """;
+
+    /**
+     * Number of learners of an Event.
+     */
+    private static final String COUNT_LEARNERS =
+            "select count(*) from events_learner where event_id = ?";
+
+    /**
+     * Waitlist a learner, ignoring if already waitlisted. Learners
+     * waitlisted in the same transaction are ordered by handle.
+     */
+    private static final String INSERT_WAITLISTED = """
+            insert into events_waitlist(event_id, user_handle, waitlisted_at)
+            values (?, ?, current_timestamp) on conflict do nothing
+            """;
+
+    /**
+     * Remove a learner from waitlist.
+     */
+    private static final String DELETE_WAITLISTED = """
+            delete from events_waitlist
+            where event_id = ? and user_handle = ?
+            """;
+
+    /**
+     * Remove learners from waitlist.
+     */
+    private static final String DELETE_ALL_WAITLISTED = """
+            delete from events_waitlist
+            where event_id = ? and user_handle = any(?)
+            """;
+
+    /**
+     * Lock the first waitlisted learners, skipping those being promoted
+     * by a concurrent transaction.
+     */
+    private static final String FIRST_WAITLISTED = """
+            select user_handle from events_waitlist
+            where event_id = ?
+            order by waitlisted_at, user_handle
+            limit ? for update skip locked
+            """;
+
+    private Seats() {
+    }
+
+    /**
+     * Registers a learner, or waitlists once seats are over.
+     *
+     * @param connection the connection
+     * @param eventId    the eventId
+     * @param userName   the username
+     * @return the registration status
+     * @throws SQLException
+     */
+    static RegistrationStatus register(final Connection connection,
+                                       final UUID eventId,
+                                       final String userName)
+            throws SQLException {
+        if (update(connection, INSERT_LEARNER, eventId, userName) == 0) {
+            return RegistrationStatus.ALREADY_REGISTERED;
+        }
+        Seat seat = take(connection, eventId, userName);
+        if (seat != Seat.FULL) {
+            if (seat == Seat.TAKEN) {
+                update(connection, DELETE_WAITLISTED, eventId, userName);
+            }
+            count(connection, eventId, stripe(userName), 1);
+            update(connection, INSERT_FEED, eventId, userName);
+            Outbox.append(connection, eventId, ChangeType.REGISTERED,
+                    userName);
+            return RegistrationStatus.REGISTERED;
+        }
+        update(connection, DELETE_LEARNER, eventId, userName);
+        return update(connection, INSERT_WAITLISTED, eventId, userName) == 0
+                ? RegistrationStatus.ALREADY_WAITLISTED
+                : RegistrationStatus.WAITLISTED;
+    }
+
+    /**
+     * Registers learners in a few batched statements. Seats go to the
+     * learners in the order given, the others are waitlisted. The owner
+     * is rejected.
+     *
+     * @param connection the connection
+     * @param eventId    the eventId
+     * @param owner      the owner of the Event
+     * @param userNames  the usernames
+     * @return the registration status by username, in the order given
+     * @throws SQLException
+     */
+    static Map<String, RegistrationStatus> registerAll(
+            final Connection connection,
+            final UUID eventId,
+            final String owner,
+            final Collection<String> userNames) throws SQLException {
+        Map<String, RegistrationStatus> statuses = new LinkedHashMap<>();
+        userNames.forEach(userName -> statuses.put(userName,
+                userName.equals(owner) ? RegistrationStatus.REJECTED : null));
+        // Inserted in sorted order, so that overlapping bulk
+        // registrations lock learners in the same order
+        TreeSet<String> learners = new TreeSet<>(userNames);
+        learners.remove(owner);
+        if (learners.isEmpty()) {
+            return statuses;
+        }
+        List<String> sorted = new ArrayList<>(learners);
+        int[] counts = batch(connection, INSERT_LEARNER, eventId, sorted);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                statuses.put(sorted.get(i),
+                        RegistrationStatus.ALREADY_REGISTERED);
+            }
+        }
+        List<String> inserted = new ArrayList<>();
+        statuses.forEach((userName, status) -> {
+            if (status == null) {
+                inserted.add(userName);
+            }
+        });
+        int seats = takeAll(connection, eventId, inserted.size());
+        List<String> admitted = inserted.subList(0, seats);
+        List<String> waiting = inserted.subList(seats, inserted.size());
+        admitted.forEach(userName ->
+                statuses.put(userName, RegistrationStatus.REGISTERED));
+        if (!admitted.isEmpty()) {
+            updateAll(connection, DELETE_ALL_WAITLISTED, eventId, admitted);
+            count(connection, eventId, stripe(admitted.get(0)),
+                    admitted.size());
+            updateAll(connection, INSERT_ALL_FEEDS, eventId, admitted);
+            Outbox.appendAll(connection, eventId, ChangeType.REGISTERED,
+                    admitted);
+        }
+        if (!waiting.isEmpty()) {
+            updateAll(connection, DELETE_LEARNERS, eventId, waiting);
+            counts = batch(connection, INSERT_WAITLISTED, eventId, waiting);
+            for (int i = 0; i < counts.length; i++) {
+                statuses.put(waiting.get(i), counts[i] == 0
+                        ? RegistrationStatus.ALREADY_WAITLISTED
+                        : RegistrationStatus.WAITLISTED);
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Unregisters a learner, or removes from waitlist. The seat goes to
+     * the first waitlisted learner, if any, unless it pays back a seat
+     * overbooked.
+     *
+     * @param connection the connection
+     * @param eventId    the eventId
+     * @param userName   the username
+     * @return false if neither registered nor waitlisted
+     * @throws SQLException
+     */
+    static boolean unregister(final Connection connection,
+                              final UUID eventId,
+                              final String userName) throws SQLException {
+        if (update(connection, DELETE_LEARNER, eventId, userName) == 0) {
+            return update(connection, DELETE_WAITLISTED, eventId,
+                    userName) == 1;
+        }
+        update(connection, DELETE_FEED, eventId, userName);
+        Outbox.append(connection, eventId, ChangeType.UNREGISTERED,
+                userName);
+        // Locking all the stripes, in the order registrations falling
+        // back to them do, so that such a registration either sees the
+        // seat or has committed its waitlisting before the promotion
+        boolean limited = false;
+        int available = 0;
+        int overbooked = -1;
+        try (PreparedStatement ps =
+                     connection.prepareStatement(SEATS_FOR_UPDATE)) {
+            ps.setObject(1, eventId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    limited = true;
+                    available += rs.getInt(2);
+                    if (overbooked == -1 && rs.getInt(2) < 0) {
+                        overbooked = rs.getInt(1);
+                    }
+                }
+            }
+        }
+        if (available < 0) {
+            // Pays back the seats overbooked, no one is promoted
+            seat(connection, RELEASE_SEAT, eventId, overbooked);
+        } else if (limited && promote(connection, eventId, 1) == 1) {
+            return true;
+        } else if (limited) {
+            seat(connection, RELEASE_SEAT, eventId, stripe(userName));
+        }
+        count(connection, eventId, stripe(userName), -1);
+        return true;
+    }
+
+    /**
+     * Limits the seats of an Event. Registered learners keep their seats,
+     * waitlisted learners are registered into the seats left. Below the
+     * learners, the stripes hold the seats overbooked as negative. Callers
+     * must hold the lock of the Event (select for update): registrations
+     * hold a key share lock on it from inserting their learner, so it
+     * waits for those in progress, even when the Event has no seats yet,
+     * and the count of learners includes them.
+     *
+     * @param connection the connection
+     * @param eventId    the eventId
+     * @param capacity   the number of seats
+     * @throws SQLException
+     */
+    static void limit(final Connection connection,
+                      final UUID eventId,
+                      final int capacity) throws SQLException {
+        // Waits for unregistrations releasing a seat
+        boolean limited;
+        try (PreparedStatement ps =
+                     connection.prepareStatement(SEATS_FOR_UPDATE)) {
+            ps.setObject(1, eventId);
+            try (ResultSet rs = ps.executeQuery()) {
+                limited = rs.next();
+                while (rs.next()) {
+                    // locks all the stripes
+                    rs.getInt(1);
+                }
+            }
+        }
+        int available = capacity - learners(connection, eventId);
+        int promoted = promote(connection, eventId, Math.max(0, available));
+        if (promoted > 0) {
+            count(connection, eventId, 0, promoted);
+        }
+        available -= promoted;
+        try (PreparedStatement ps = connection.prepareStatement(
+                limited ? UPDATE_SEAT : INSERT_SEAT)) {
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                int seats = Math.floorDiv(available, STRIPES)
+                        + (stripe < Math.floorMod(available, STRIPES)
+                        ? 1 : 0);
+                int index = 1;
+                if (limited) {
+                    ps.setInt(index++, seats);
+                }
+                ps.setObject(index++, eventId);
+                ps.setInt(index++, stripe);
+                if (!limited) {
+                    ps.setInt(index, seats);
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Available seats of an Event.
+     *
+     * @param connection the connection
+     * @param eventId    the eventId
+     * @return the seats, empty if not seat-limited
+     * @throws SQLException
+     */
+    static OptionalInt available(final Connection connection,
+                                 final UUID eventId) throws SQLException {
+        try (PreparedStatement ps =
+                     connection.prepareStatement(AVAILABLE_SEATS)) {
+            ps.setObject(1, eventId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                int seats = rs.getInt(1);
+                return rs.wasNull() ? OptionalInt.empty()
+                        : OptionalInt.of(Math.max(0, seats));
+            }
+        }
+    }
+
+    /**
+     * Registration counts of Events.
+     *
+     * @param connection the connection
+     * @param eventIds   the eventIds
+     * @return the counts by eventId, missing if none registered
+     * @throws SQLException
+     */
+    static Map<UUID, Integer> registrations(final Connection connection,
+                                            final Collection<UUID> eventIds)
+            throws SQLException {
+        Map<UUID, Integer> registrations = new HashMap<>(eventIds.size());
+        try (PreparedStatement ps =
+                     connection.prepareStatement(SELECT_REGISTRATIONS)) {
+            ps.setArray(1, connection.createArrayOf("uuid",
+                    eventIds.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    registrations.put(rs.getObject(1, UUID.class),
+                            rs.getInt(2));
+                }
+            }
+        }
+        return registrations;
+    }
+
+    /**
+     * Adds to a registration counter.
+     *
+     * @param connection
+     * @param eventId
+     * @param stripe
+     * @param delta
+     * @throws SQLException
+     */
+    private static void count(final Connection connection,
+                              final UUID eventId,
+                              final int stripe,
+                              final int delta) throws SQLException {
+        // Insert is ignored when a concurrent registration inserted the
+        // counter first, which is then updated
+        while (count(connection, UPDATE_REGISTRATIONS, eventId, stripe,
+                delta) == 0) {
+            if (count(connection, INSERT_REGISTRATIONS, eventId, stripe,
+                    delta) == 1) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Executes an update or insert of a registration counter.
+     *
+     * @param connection
+     * @param sql
+     * @param eventId
+     * @param stripe
+     * @param delta
+     * @return rows updated
+     * @throws SQLException
+     */
+    private static int count(final Connection connection,
+                             final String sql,
+                             final UUID eventId,
+                             final int stripe,
+                             final int delta) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            int index = 1;
+            ps.setInt(index++, delta);
+            ps.setObject(index++, eventId);
+            ps.setInt(index, stripe);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Takes a seat, from the stripe of the user if it has any.
+     *
+     * @param connection
+     * @param eventId
+     * @param userName
+     * @return the seat
+     * @throws SQLException
+     */
+    private static Seat take(final Connection connection,
+                             final UUID eventId,
+                             final String userName) throws SQLException {
+        List<Integer> stripes = new ArrayList<>(STRIPES);
+        boolean limited = false;
+        try (PreparedStatement ps =
+                     connection.prepareStatement(SELECT_SEATS)) {
+            ps.setObject(1, eventId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    limited = true;
+                    if (rs.getInt(2) > 0) {
+                        stripes.add(rs.getInt(1));
+                    }
+                }
+            }
+        }
+        if (!limited) {
+            return Seat.UNLIMITED;
+        }
+        // Own stripe first, so that concurrent registrations
+        // of different users update different rows
+        Integer own = stripe(userName);
+        if (stripes.remove(own)) {
+            stripes.add(0, own);
+        }
+        try (PreparedStatement ps = connection.prepareStatement(TAKE_SEAT)) {
+            for (int stripe : stripes) {
+                ps.setObject(1, eventId);
+                ps.setInt(2, stripe);
+                if (ps.executeUpdate() == 1) {
+                    return Seat.TAKEN;
+                }
+            }
+        }
+        // The snapshot above may miss a seat released meanwhile, so
+        // recheck with all the stripes locked before waitlisting
+        Integer free = null;
+        try (PreparedStatement ps =
+                     connection.prepareStatement(SEATS_FOR_UPDATE)) {
+            ps.setObject(1, eventId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (free == null && rs.getInt(2) > 0) {
+                        free = rs.getInt(1);
+                    }
+                }
+            }
+        }
+        return free != null
+                && seat(connection, TAKE_SEAT, eventId, free) == 1
+                ? Seat.TAKEN : Seat.FULL;
+    }
+
+    /**
+     * Executes an update of a seat stripe.
+     *
+     * @param connection
+     * @param sql
+     * @param eventId
+     * @param stripe
+     * @return rows updated
+     * @throws SQLException
+     */
+    private static int seat(final Connection connection,
+                            final String sql,
+                            final UUID eventId,
+                            final int stripe) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setObject(1, eventId);
+            ps.setInt(2, stripe);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Takes seats for learners, from all the stripes.
+     *
+     * @param connection
+     * @param eventId
+     * @param wanted number of seats
+     * @return number of seats taken, all if not seat-limited
+     * @throws SQLException
+     */
+    private static int takeAll(final Connection connection,
+                               final UUID eventId,
+                               final int wanted) throws SQLException {
+        boolean limited = false;
+        int taken = 0;
+        try (PreparedStatement select =
+                     connection.prepareStatement(SEATS_FOR_UPDATE);
+             PreparedStatement update =
+                     connection.prepareStatement(UPDATE_SEAT)) {
+            select.setObject(1, eventId);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    limited = true;
+                    int available = rs.getInt(2);
+                    int take = Math.min(available, wanted - taken);
+                    if (take > 0) {
+                        int index = 1;
+                        update.setInt(index++, available - take);
+                        update.setObject(index++, eventId);
+                        update.setInt(index, rs.getInt(1));
+                        update.addBatch();
+                        taken += take;
+                    }
+                }
+            }
+            if (taken > 0) {
+                update.executeBatch();
+            }
+        }
+        return limited ? taken : wanted;
+    }
+
+    /**
+     * Registers the first waitlisted learners.
+     *
+     * @param connection
+     * @param eventId
+     * @param seats maximum number of learners to register
+     * @return number of learners registered
+     * @throws SQLException
+     */
+    private static int promote(final Connection connection,
+                               final UUID eventId,
+                               final int seats) throws SQLException {
+        if (seats == 0) {
+            return 0;
+        }
+        List<String> promoted = new ArrayList<>();
+        try (PreparedStatement ps =
+                     connection.prepareStatement(FIRST_WAITLISTED)) {
+            ps.setObject(1, eventId);
+            ps.setInt(2, seats);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    promoted.add(rs.getString(1));
+                }
+            }
+        }
+        for (String userName : promoted) {
+            update(connection, DELETE_WAITLISTED, eventId, userName);
+            update(connection, INSERT_LEARNER, eventId, userName);
+            update(connection, INSERT_FEED, eventId, userName);
+        }
+        if (!promoted.isEmpty()) {
+            Outbox.appendAll(connection, eventId, ChangeType.REGISTERED,
+                    promoted);
+        }
+        return promoted.size();
+    }
+
+    /**
+     * Executes an update of an Event and a user.
+     *
+     * @param connection
+     * @param sql
+     * @param eventId
+     * @param userName
+     * @return rows updated
+     * @throws SQLException
+     */
+    private static int update(final Connection connection,
+                              final String sql,
+                              final UUID eventId,
+                              final String userName) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setObject(1, eventId);
+            ps.setString(2, userName);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Executes an update of an Event and each user as one batch.
+     *
+     * @param connection
+     * @param sql
+     * @param eventId
+     * @param userNames
+     * @return rows updated of each user
+     * @throws SQLException
+     */
+    private static int[] batch(final Connection connection,
+                               final String sql,
+                               final UUID eventId,
+                               final List<String> userNames)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (String userName : userNames) {
+                ps.setObject(1, eventId);
+                ps.setString(2, userName);
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        }
+    }
+
+    /**
+     * Executes an update of an Event and all the users.
+     *
+     * @param connection
+     * @param sql
+     * @param eventId
+     * @param userNames
+     * @throws SQLException
+     */
+    private static void updateAll(final Connection connection,
+                                  final String sql,
+                                  final UUID eventId,
+                                  final List<String> userNames)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setObject(1, eventId);
+            ps.setArray(2, connection.createArrayOf("varchar",
+                    userNames.toArray()));
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Number of learners of an Event.
+     *
+     * @param connection
+     * @param eventId
+     * @return the count
+     * @throws SQLException
+     */
+    private static int learners(final Connection connection,
+                                final UUID eventId) throws SQLException {
+        try (PreparedStatement ps =
+                     connection.prepareStatement(COUNT_LEARNERS)) {
+            ps.setObject(1, eventId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Stripe of the seats of a user.
+     *
+     * @param userName
+     * @return the stripe
+     */
+    private static int stripe(final String userName) {
+        return Math.floorMod(userName.hashCode(), STRIPES);
+    }
+
+    /**
+     * Outcome of taking a seat.
+     */
+    private enum Seat {
+        /**
+         * Event is not seat-limited.
+         */
+        UNLIMITED,
+        /**
+         * Seat taken.
+         */
+        TAKEN,
+        /**
+         * No seat left.
+         */
+        FULL
+    }
+}
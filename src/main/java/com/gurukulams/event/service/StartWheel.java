@@ -0,0 +1,396 @@
+package com.gurukulams.event.service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel of upcoming Events by the time their start
+ * window opens, from when {@link EventService#start} accepts a meeting.
+ * Levels of seconds, minutes, hours and days each hold the Events due
+ * within their span, and Events cascade down a level as the wheel turns
+ * every second. Adding, moving or removing an Event is O(1). A turn
+ * cascades the slots due in each level, and drops the started Events
+ * from those with an open window, which are kept apart until they start.
+ * Events starting within a duration are found by walking the slots up to
+ * it in each level, and subscribers are told when a window opens instead
+ * of polling. Windows opened by adding an Event are told on the next
+ * turn, so that a subscriber never runs on the thread of a write.
+ */
+public final class StartWheel {
+
+    /**
+     * Logger.
+     */
+    private static final System.Logger LOGGER =
+            System.getLogger(StartWheel.class.getName());
+
+    /**
+     * Slots of each level.
+     */
+    private static final int[] SLOTS = {60, 60, 24, 64};
+
+    /**
+     * Seconds of a slot of each level.
+     */
+    private static final long[] SPANS = {1, 60, 3_600, 86_400};
+
+    /**
+     * Upcoming Events.
+     */
+    private static final String UPCOMING_EVENTS =
+            "select id, event_date from events where event_date > now()";
+
+    /**
+     * Seconds from window open to start.
+     */
+    private final long windowSeconds;
+
+    /**
+     * Events by level and slot.
+     */
+    private final List<List<Set<UUID>>> levels = new ArrayList<>();
+
+    /**
+     * Events in the wheel.
+     */
+    private final Map<UUID, Entry> entries = new HashMap<>();
+
+    /**
+     * Start, in epoch seconds, of Events with open window.
+     */
+    private final Map<UUID, Long> open = new HashMap<>();
+
+    /**
+     * Subscribers to window open.
+     */
+    private final List<Consumer<UUID>> subscribers =
+            new CopyOnWriteArrayList<>();
+
+    /**
+     * Events with window opened, not told to subscribers yet.
+     */
+    private final Queue<UUID> opening = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Tells subscribers one turn at a time.
+     */
+    private final Lock publishing = new ReentrantLock();
+
+    /**
+     * Guards the wheel.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Turns the wheel once loaded.
+     */
+    private final ScheduledExecutorService turner;
+
+    /**
+     * Last second turned, in epoch seconds.
+     */
+    private long current;
+
+    /**
+     * Is the wheel loaded from the database.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Builds a new Start Wheel.
+     *
+     * @param theWindow time before the start when the window opens
+     */
+    StartWheel(final Duration theWindow) {
+        this.windowSeconds = theWindow.toSeconds();
+        this.turner = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("event-start-wheel")
+                        .daemon().factory());
+        for (int slots : SLOTS) {
+            List<Set<UUID>> level = new ArrayList<>(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                level.add(new HashSet<>());
+            }
+            levels.add(level);
+        }
+    }
+
+    /**
+     * Events starting from now to within, in start order.
+     *
+     * @param within the duration
+     * @return the event ids
+     */
+    public List<UUID> startingWithin(final Duration within) {
+        if (within.isNegative()) {
+            throw new IllegalArgumentException("Invalid duration");
+        }
+        Map<UUID, Long> starting = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            long until = current + within.toSeconds();
+            open.forEach((id, startAt) -> {
+                if (startAt >= current && startAt <= until) {
+                    starting.put(id, startAt);
+                }
+            });
+            long openUntil = until - windowSeconds;
+            for (int level = 0; level < SLOTS.length; level++) {
+                long unit = current / SPANS[level];
+                long last = Math.min(openUntil / SPANS[level],
+                        unit + SLOTS[level] - 1);
+                for (long u = unit; u <= last; u++) {
+                    for (UUID id : slot(level, u)) {
+                        long openAt = entries.get(id).openAt();
+                        if (openAt <= openUntil) {
+                            starting.put(id, openAt + windowSeconds);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return starting.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Long>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Subscribes to start window open. The subscriber is called with the
+     * event id on the thread turning the wheel, within a second of the
+     * window opening, and must not block.
+     *
+     * @param subscriber the subscriber
+     * @return closing it unsubscribes
+     */
+    public AutoCloseable subscribe(final Consumer<UUID> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /**
+     * Loads the wheel with upcoming Events, unless already loaded, and
+     * turns it every second from then on, unless stopped.
+     *
+     * @param dataSource the data source
+     * @throws SQLException
+     */
+    synchronized void load(final DataSource dataSource)
+            throws SQLException {
+        if (loaded) {
+            return;
+        }
+        Map<UUID, LocalDateTime> upcoming = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps =
+                     connection.prepareStatement(UPCOMING_EVENTS);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                upcoming.put(rs.getObject(1, UUID.class),
+                        rs.getObject(2, LocalDateTime.class));
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            current = seconds(LocalDateTime.now());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        loaded = true;
+        upcoming.forEach(this::add);
+        if (!this.turner.isShutdown()) {
+            this.turner.scheduleAtFixedRate(
+                    () -> turn(LocalDateTime.now()), 0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops turning the wheel, for good. Events are still kept current.
+     * Synchronizes with load, so that a wheel loaded after is not turned.
+     */
+    synchronized void stop() {
+        this.turner.shutdownNow();
+    }
+
+    /**
+     * Adds or moves an Event, if loaded. Synchronizes with load, so that
+     * an Event committed while loading is not missed.
+     *
+     * @param eventId   the event id
+     * @param eventDate the event date
+     */
+    synchronized void add(final UUID eventId, final LocalDateTime eventDate) {
+        if (!loaded) {
+            return;
+        }
+        List<UUID> opened = new ArrayList<>(1);
+        lock.writeLock().lock();
+        try {
+            remove(eventId);
+            long startAt = seconds(eventDate);
+            if (startAt >= current) {
+                place(eventId, startAt - windowSeconds, opened);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        opening.addAll(opened);
+    }
+
+    /**
+     * Removes an Event. Synchronizes with load, so that an Event deleted
+     * while loading is not added back.
+     *
+     * @param eventId the event id
+     */
+    synchronized void remove(final UUID eventId) {
+        lock.writeLock().lock();
+        try {
+            open.remove(eventId);
+            opening.remove(eventId);
+            Entry entry = entries.remove(eventId);
+            if (entry != null) {
+                levels.get(entry.level()).get(entry.slot()).remove(eventId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all the Events. A loaded wheel stays loaded.
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            levels.forEach(level -> level.forEach(Set::clear));
+            entries.clear();
+            open.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Turns the wheel second by second up to now, opening the windows
+     * due and dropping the started Events.
+     *
+     * @param now the time
+     */
+    void turn(final LocalDateTime now) {
+        List<UUID> opened = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            long until = seconds(now);
+            while (current < until) {
+                current++;
+                for (int level = SLOTS.length - 1; level >= 0; level--) {
+                    if (current % SPANS[level] == 0) {
+                        Set<UUID> due = slot(level, current / SPANS[level]);
+                        List<UUID> cascading = new ArrayList<>(due);
+                        due.clear();
+                        for (UUID id : cascading) {
+                            place(id, entries.remove(id).openAt(), opened);
+                        }
+                    }
+                }
+            }
+            open.values().removeIf(startAt -> startAt < current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        opening.addAll(opened);
+        publish();
+    }
+
+    /**
+     * Places an Event in the level its window opens within, or opens it.
+     *
+     * @param eventId
+     * @param openAt
+     * @param opened  events opened
+     */
+    private void place(final UUID eventId,
+                       final long openAt,
+                       final List<UUID> opened) {
+        long delay = openAt - current;
+        if (delay <= 0) {
+            open.put(eventId, openAt + windowSeconds);
+            opened.add(eventId);
+            return;
+        }
+        int level = 0;
+        while (level < SLOTS.length - 1
+                && delay >= SPANS[level] * SLOTS[level]) {
+            level++;
+        }
+        int slot = (int) (openAt / SPANS[level] % SLOTS[level]);
+        levels.get(level).get(slot).add(eventId);
+        entries.put(eventId, new Entry(openAt, level, slot));
+    }
+
+    private Set<UUID> slot(final int level, final long unit) {
+        return levels.get(level).get((int) (unit % SLOTS[level]));
+    }
+
+    private void publish() {
+        publishing.lock();
+        try {
+            UUID eventId = opening.poll();
+            while (eventId != null) {
+                for (Consumer<UUID> subscriber : subscribers) {
+                    try {
+                        subscriber.accept(eventId);
+                    } catch (RuntimeException e) {
+                        LOGGER.log(System.Logger.Level.WARNING,
+                                "Start window subscriber failed", e);
+                    }
+                }
+                eventId = opening.poll();
+            }
+        } finally {
+            publishing.unlock();
+        }
+    }
+
+    private static long seconds(final LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Position of an Event in the wheel.
+     *
+     * @param openAt epoch second the window opens
+     * @param level  the level
+     * @param slot   the slot
+     */
+    private record Entry(long openAt, int level, int slot) {
+    }
+}
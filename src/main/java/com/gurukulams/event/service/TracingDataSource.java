@@ -0,0 +1,461 @@
+package com.gurukulams.event.service;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Decorates a DataSource to time every statement.
+ * Statistics are grouped by normalized SQL, where literals are replaced by
+ * {@code ?} and whitespace is collapsed, and statements slower than the
+ * threshold are logged with the {@link EventService} method that issued
+ * them. Normalization is memoized, so statements under the threshold
+ * cost a few counter updates.
+ */
+public final class TracingDataSource implements DataSource {
+
+    /**
+     * Logger.
+     */
+    private static final System.Logger LOGGER =
+            System.getLogger(TracingDataSource.class.getName());
+
+    /**
+     * Maximum number of memoized normalizations. SQL with inlined values
+     * beyond this are normalized on every execution.
+     */
+    private static final int MAX_NORMALIZED = 10_000;
+
+    /**
+     * Separator of statements of a batch.
+     */
+    private static final String BATCH_SEPARATOR = "; ";
+
+    /**
+     * Method of statements issued outside of EventService.
+     */
+    private static final String NO_METHOD = "-";
+
+    /**
+     * Traced DataSource.
+     */
+    private final DataSource dataSource;
+
+    /**
+     * Statements taking longer are logged.
+     */
+    private final long slowNanos;
+
+    /**
+     * Memoized normalizations by SQL.
+     */
+    private final Map<String, Sql> normalized = new ConcurrentHashMap<>();
+
+    /**
+     * Statistics by normalized SQL.
+     */
+    private final Map<String, Stats> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Builds a new Tracing DataSource.
+     *
+     * @param theDataSource    the data source to trace
+     * @param theSlowThreshold statements taking longer are logged
+     */
+    public TracingDataSource(final DataSource theDataSource,
+                             final Duration theSlowThreshold) {
+        if (theSlowThreshold.isNegative()) {
+            throw new IllegalArgumentException("Invalid slow threshold");
+        }
+        this.dataSource = theDataSource;
+        this.slowNanos = theSlowThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(dataSource.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username,
+                                    final String password)
+            throws SQLException {
+        return connection(dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Statistics of the statements executed, slowest in total first.
+     *
+     * @return the statistics
+     */
+    public List<StatementStats> statistics() {
+        List<StatementStats> snapshot = new ArrayList<>(statistics.size());
+        statistics.forEach((sql, stats) -> snapshot.add(stats.snapshot(sql)));
+        snapshot.sort(Comparator.comparingLong(StatementStats::totalNanos)
+                .reversed());
+        return snapshot;
+    }
+
+    /**
+     * Clears the statistics.
+     */
+    public void reset() {
+        statistics.clear();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(final PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(final int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this)
+                : dataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+    }
+
+    /**
+     * Is the DataSource traced, directly or through the DataSources it
+     * wraps. A DataSource that fails to answer is taken as traced.
+     *
+     * @param dataSource the data source
+     * @return true if traced
+     */
+    static boolean isTraced(final DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(TracingDataSource.class);
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Normalizes SQL: literals become {@code ?} and whitespace is
+     * collapsed. Binds are the {@code ?} of the SQL itself.
+     *
+     * @param sql the sql
+     * @return the normalized sql
+     */
+    static Sql normalize(final String sql) {
+        StringBuilder text = new StringBuilder(sql.length());
+        int binds = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = sql.indexOf('\'', i + 1);
+                while (i != -1 && i + 1 < sql.length()
+                        && sql.charAt(i + 1) == '\'') {
+                    i = sql.indexOf('\'', i + 2);
+                }
+                i = i == -1 ? sql.length() : i + 1;
+                text.append('?');
+            } else if (Character.isDigit(c) && !inWord(text)) {
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i))
+                        || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                text.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < sql.length()
+                        && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!text.isEmpty() && i < sql.length()) {
+                    text.append(' ');
+                }
+            } else {
+                if (c == '?') {
+                    binds++;
+                }
+                text.append(c);
+                i++;
+            }
+        }
+        return new Sql(text.toString(), binds);
+    }
+
+    private static boolean inWord(final CharSequence text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char last = text.charAt(text.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_';
+    }
+
+    private Sql normalized(final String sql) {
+        Sql result = normalized.get(sql);
+        if (result == null) {
+            result = normalize(sql);
+            if (normalized.size() < MAX_NORMALIZED) {
+                normalized.put(sql, result);
+            }
+        }
+        return result;
+    }
+
+    private Connection connection(final Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0
+                        && args[0] instanceof String text ? text : null;
+                return proxy(method.getReturnType(),
+                        new Traced(statement, sql));
+            }
+            return result;
+        });
+    }
+
+    private static <T> T proxy(final Class<T> type,
+                               final InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(final Object target,
+                                 final Method method,
+                                 final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Traced Statement.
+     */
+    private final class Traced implements InvocationHandler {
+
+        /**
+         * Physical statement.
+         */
+        private final Statement statement;
+
+        /**
+         * SQL of a prepared statement, null for a plain statement.
+         */
+        private final String preparedSql;
+
+        /**
+         * SQL added to the batch of a plain statement.
+         */
+        private final List<String> batch = new ArrayList<>();
+
+        /**
+         * Statistics of the last execution.
+         */
+        private Stats last;
+
+        Traced(final Statement theStatement, final String thePreparedSql) {
+            this.statement = theStatement;
+            this.preparedSql = thePreparedSql;
+        }
+
+        @Override
+        public Object invoke(final Object proxy,
+                             final Method method,
+                             final Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("addBatch") && args != null) {
+                    batch.add((String) args[0]);
+                } else if (name.equals("clearBatch")) {
+                    batch.clear();
+                }
+                Object result = TracingDataSource.invoke(statement,
+                        method, args);
+                return result instanceof ResultSet resultSet
+                        ? resultSet(resultSet, last) : result;
+            }
+            Sql sql = sql(args);
+            long start = System.nanoTime();
+            Object result = TracingDataSource.invoke(statement, method, args);
+            long elapsed = System.nanoTime() - start;
+            if (name.equals("executeBatch")) {
+                batch.clear();
+            }
+            Invocation invocation = Invocation.current();
+            String caller = invocation == null
+                    ? NO_METHOD : invocation.method();
+            last = statistics.computeIfAbsent(sql.text(), k -> new Stats());
+            last.record(caller, elapsed, written(result));
+            if (elapsed > slowNanos) {
+                LOGGER.log(System.Logger.Level.WARNING,
+                        "Slow statement of {0} ms in {1} with {2} binds: {3}",
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), caller,
+                        sql.binds(), sql.text());
+            }
+            return result instanceof ResultSet resultSet
+                    ? resultSet(resultSet, last) : result;
+        }
+
+        private Sql sql(final Object[] args) {
+            if (args != null && args.length > 0
+                    && args[0] instanceof String text) {
+                return normalized(text);
+            }
+            if (preparedSql != null) {
+                return normalized(preparedSql);
+            }
+            StringBuilder text = new StringBuilder();
+            int binds = 0;
+            for (String added : batch) {
+                Sql sql = normalized(added);
+                if (!text.isEmpty()) {
+                    text.append(BATCH_SEPARATOR);
+                }
+                text.append(sql.text());
+                binds += sql.binds();
+            }
+            return new Sql(text.toString(), binds);
+        }
+
+        private ResultSet resultSet(final ResultSet resultSet,
+                                    final Stats stats) {
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                Object result = TracingDataSource.invoke(resultSet, method,
+                        args);
+                if (stats != null && Boolean.TRUE.equals(result)
+                        && method.getName().equals("next")) {
+                    stats.rows.increment();
+                }
+                return result;
+            });
+        }
+
+        private static long written(final Object result) {
+            if (result instanceof Number count) {
+                return count.longValue();
+            }
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(0, count);
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Normalized SQL.
+     *
+     * @param text  the normalized text
+     * @param binds the number of bind parameters
+     */
+    record Sql(String text, int binds) {
+    }
+
+    /**
+     * Statistics of a normalized SQL.
+     *
+     * @param sql        the normalized sql
+     * @param methods    EventService methods that executed it
+     * @param count      number of executions
+     * @param totalNanos total time of executions
+     * @param maxNanos   time of the slowest execution
+     * @param rows       rows read, inserted, updated or deleted
+     */
+    public record StatementStats(String sql,
+                                 Set<String> methods,
+                                 long count,
+                                 long totalNanos,
+                                 long maxNanos,
+                                 long rows) {
+    }
+
+    /**
+     * Running statistics of a normalized SQL.
+     */
+    private static final class Stats {
+
+        /**
+         * Methods that executed it.
+         */
+        private final Set<String> methods = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Number of executions.
+         */
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Total time.
+         */
+        private final LongAdder totalNanos = new LongAdder();
+
+        /**
+         * Slowest time.
+         */
+        private final LongAccumulator maxNanos =
+                new LongAccumulator(Math::max, 0);
+
+        /**
+         * Rows read or written.
+         */
+        private final LongAdder rows = new LongAdder();
+
+        void record(final String method,
+                    final long elapsed,
+                    final long written) {
+            methods.add(method);
+            count.increment();
+            totalNanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+            rows.add(written);
+        }
+
+        StatementStats snapshot(final String sql) {
+            return new StatementStats(sql, new TreeSet<>(methods),
+                    count.sum(), totalNanos.sum(), maxNanos.get(),
+                    rows.sum());
+        }
+    }
+}
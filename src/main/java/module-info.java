@@ -2,6 +2,7 @@ module gurukulams.event {
     requires java.base;
     requires java.sql;
     requires java.naming;
+    requires java.management;
     requires jakarta.validation;
     requires org.hibernate.validator;
     requires com.h2database;
@@ -0,0 +1,3 @@
+-- Seats lowered below the learners are held as negative in the stripes,
+-- and paid back by unregistrations before any seat is released
+ALTER TABLE events_seat DROP CONSTRAINT IF EXISTS events_seat_available_check;
@@ -0,0 +1,16 @@
+-- Upcoming events in (event_date, id) order
+CREATE INDEX events_event_date_idx ON events (event_date, id);
+
+-- Events of an owner
+CREATE INDEX events_created_by_idx ON events (created_by, event_date);
+
+-- Events of a learner (LEARNER_WHERE_USER_HANDLE), covering
+CREATE INDEX events_learner_user_handle_idx
+    ON events_learner (user_handle, event_id);
+
+-- Events of a category (category filter), covering
+CREATE INDEX events_category_category_id_idx
+    ON events_category (category_id, event_id);
+
+-- Events of a tag, covering
+CREATE INDEX events_tag_tag_id_idx ON events_tag (tag_id, event_id);
@@ -0,0 +1,4 @@
+-- Localizations keyed by full language tag (de-CH) besides language (de)
+ALTER TABLE events_localized ALTER COLUMN locale SET DATA TYPE VARCHAR(35);
+ALTER TABLE events_localized_archive
+    ALTER COLUMN locale SET DATA TYPE VARCHAR(35);
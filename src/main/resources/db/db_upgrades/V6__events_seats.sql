@@ -0,0 +1,34 @@
+CREATE TABLE events_seat (
+    event_id UUID NOT NULL,
+    stripe SMALLINT NOT NULL,
+    available INTEGER NOT NULL CHECK (available >= 0),
+    PRIMARY KEY(event_id, stripe),
+    FOREIGN KEY (event_id) REFERENCES events (id)
+);
+
+CREATE TABLE events_waitlist (
+    event_id UUID NOT NULL,
+    user_handle VARCHAR(40) NOT NULL,
+    waitlisted_at TIMESTAMP NOT NULL,
+    PRIMARY KEY(event_id, user_handle),
+    FOREIGN KEY (event_id) REFERENCES events (id)
+);
+
+CREATE INDEX events_waitlist_event_id_waitlisted_at_idx
+    ON events_waitlist (event_id, waitlisted_at, user_handle);
+
+CREATE TABLE events_seat_archive (
+    event_id UUID NOT NULL,
+    stripe SMALLINT NOT NULL,
+    available INTEGER NOT NULL,
+    PRIMARY KEY(event_id, stripe),
+    FOREIGN KEY (event_id) REFERENCES events_archive (id)
+);
+
+CREATE TABLE events_waitlist_archive (
+    event_id UUID NOT NULL,
+    user_handle VARCHAR(40) NOT NULL,
+    waitlisted_at TIMESTAMP NOT NULL,
+    PRIMARY KEY(event_id, user_handle),
+    FOREIGN KEY (event_id) REFERENCES events_archive (id)
+);
@@ -0,0 +1,22 @@
+CREATE TABLE events_registration (
+    event_id UUID NOT NULL,
+    stripe SMALLINT NOT NULL,
+    registered INTEGER NOT NULL,
+    PRIMARY KEY(event_id, stripe),
+    FOREIGN KEY (event_id) REFERENCES events (id)
+);
+
+INSERT INTO events_registration (event_id, stripe, registered)
+    SELECT event_id, 0, COUNT(*) FROM events_learner GROUP BY event_id;
+
+CREATE TABLE events_registration_archive (
+    event_id UUID NOT NULL,
+    stripe SMALLINT NOT NULL,
+    registered INTEGER NOT NULL,
+    PRIMARY KEY(event_id, stripe),
+    FOREIGN KEY (event_id) REFERENCES events_archive (id)
+);
+
+INSERT INTO events_registration_archive (event_id, stripe, registered)
+    SELECT event_id, 0, COUNT(*) FROM events_learner_archive
+    GROUP BY event_id;
@@ -0,0 +1,28 @@
+CREATE TABLE events_feed (
+    event_id UUID NOT NULL,
+    user_handle VARCHAR(55) NOT NULL,
+    event_date TIMESTAMP NOT NULL,
+    PRIMARY KEY(event_id, user_handle),
+    FOREIGN KEY (event_id) REFERENCES events (id)
+);
+
+-- Upcoming events of an user in (event_date, event_id) order, covering
+CREATE INDEX events_feed_user_handle_idx
+    ON events_feed (user_handle, event_date, event_id);
+
+INSERT INTO events_feed (event_id, user_handle, event_date)
+    SELECT id, created_by, event_date FROM events;
+
+INSERT INTO events_feed (event_id, user_handle, event_date)
+    SELECT l.event_id, l.user_handle, c.event_date
+    FROM events_learner l
+    JOIN events c ON c.id = l.event_id
+    ON CONFLICT DO NOTHING;
+
+CREATE TABLE events_feed_archive (
+    event_id UUID NOT NULL,
+    user_handle VARCHAR(55) NOT NULL,
+    event_date TIMESTAMP NOT NULL,
+    PRIMARY KEY(event_id, user_handle),
+    FOREIGN KEY (event_id) REFERENCES events_archive (id)
+);
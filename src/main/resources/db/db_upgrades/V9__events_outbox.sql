@@ -0,0 +1,14 @@
+-- Changes of Events, appended in the transaction of the change. Rows
+-- outlive the Event, so there is no foreign key to events.
+CREATE TABLE events_outbox (
+    tx_id BIGINT NOT NULL,
+    seq BIGINT GENERATED ALWAYS AS IDENTITY,
+    event_id UUID NOT NULL,
+    change VARCHAR(16) NOT NULL,
+    user_handle VARCHAR(55),
+    changed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY(tx_id, seq)
+);
+
+-- Compaction of changes past the retention
+CREATE INDEX events_outbox_changed_at_idx ON events_outbox (changed_at);
@@ -0,0 +1,164 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.model.Event;
+import com.gurukulams.event.util.TestUtil;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.gurukulams.event.util.TestUtil.getDataSource;
+
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+class AsyncEventServiceTest {
+
+    private static final String USERNAME_1 = "hari";
+    private static final String USERNAME_2 = "hari2";
+
+    private final EventService eventService;
+    private final AsyncEventService asyncEventService;
+    private final List<String> categories = List.of("c1", "c2");
+    private final List<String> tags = List.of("t1", "t2");
+
+    AsyncEventServiceTest() {
+        this.eventService = new EventService(getDataSource(),
+                TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        this.asyncEventService = new AsyncEventService(eventService, 4,
+                Duration.ofSeconds(10));
+    }
+
+    @BeforeEach
+    void before() throws SQLException {
+        eventService.delete();
+    }
+
+    @AfterEach
+    void after() throws SQLException {
+        asyncEventService.close();
+        eventService.delete();
+    }
+
+    @Test
+    void lifecycle() throws Exception {
+        Event event = asyncEventService.create(categories, tags, USERNAME_1,
+                null, anEvent(LocalDateTime.now().plusMinutes(5))).get();
+        Assertions.assertEquals(event.id(), asyncEventService.read(USERNAME_1,
+                event.id(), null).get().get().id());
+        Event updated = asyncEventService.update(event.id(), USERNAME_1,
+                Locale.GERMAN, event.withTitle("HansiEvent")).get();
+        Assertions.assertEquals("HansiEvent", updated.title());
+
+        Assertions.assertEquals(1,
+                asyncEventService.list(USERNAME_1, null).get().size());
+        Assertions.assertEquals(1, asyncEventService.list(USERNAME_1, null,
+                categories).get().size());
+        Assertions.assertEquals(1, asyncEventService.list(USERNAME_1, null,
+                10, null).get().items().size());
+
+        Assertions.assertEquals(RegistrationStatus.REGISTERED,
+                asyncEventService.register(USERNAME_2, event.id()).get());
+        Assertions.assertTrue(asyncEventService.start(USERNAME_1, event.id(),
+                new URL("https://meet.google.com/abc")).get());
+        Assertions.assertEquals("https://meet.google.com/abc",
+                asyncEventService.join(USERNAME_2, event.id()).get());
+
+        AsyncEventService.Registration registration = asyncEventService
+                .readRegistration(USERNAME_2, event.id(), null).get().get();
+        Assertions.assertEquals(event.id(), registration.event().id());
+        Assertions.assertTrue(registration.registered());
+        Assertions.assertTrue(asyncEventService.readRegistration(USERNAME_2,
+                UUID.randomUUID(), null).get().isEmpty());
+    }
+
+    @Test
+    void readAll() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            ids.add(eventService.create(categories, tags, USERNAME_1, null,
+                    anEvent(LocalDateTime.now().plusDays(2))).id());
+        }
+        ids.add(UUID.randomUUID());
+        ids.add(ids.get(0));
+        Map<UUID, Event> events = asyncEventService.readAll(USERNAME_1, ids,
+                null).get();
+        Assertions.assertEquals(150, events.size());
+        Assertions.assertTrue(asyncEventService.readAll(USERNAME_1,
+                List.of(), null).get().isEmpty());
+    }
+
+    @Test
+    void failures() {
+        ExecutionException exception = Assertions.assertThrows(
+                ExecutionException.class, () -> asyncEventService
+                        .register(USERNAME_2, UUID.randomUUID()).get());
+        Assertions.assertInstanceOf(IllegalArgumentException.class,
+                exception.getCause());
+
+        asyncEventService.close();
+        exception = Assertions.assertThrows(ExecutionException.class,
+                () -> asyncEventService.list(USERNAME_1, null).get());
+        Assertions.assertInstanceOf(RejectedExecutionException.class,
+                exception.getCause());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new AsyncEventService(eventService, 0,
+                        Duration.ofSeconds(1)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new AsyncEventService(eventService, 1, Duration.ZERO));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new AsyncEventService(eventService, 1,
+                        Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void timeoutAndCancel() throws Exception {
+        try (PooledDataSource pool = new PooledDataSource(
+                getDataSource(), 1);
+             AsyncEventService slow = new AsyncEventService(new EventService(
+                     pool, TestUtil.dataManager(), Validation
+                     .buildDefaultValidatorFactory().getValidator()),
+                     1, Duration.ofMillis(200));
+             Connection held = pool.getConnection()) {
+            // Holds the only permit waiting for the held connection
+            CompletableFuture<List<Event>> running = slow.list(USERNAME_1,
+                    null);
+            // Waits for the permit
+            CompletableFuture<Boolean> waiting = slow.isRegistered(USERNAME_1,
+                    UUID.randomUUID());
+            Thread.sleep(50);
+            waiting.cancel(true);
+            Assertions.assertThrows(CancellationException.class, waiting::get);
+            ExecutionException exception = Assertions.assertThrows(
+                    ExecutionException.class, running::get);
+            Assertions.assertInstanceOf(TimeoutException.class,
+                    exception.getCause());
+
+            CompletableFuture<Map<UUID, Event>> fanOut = slow.readAll(
+                    USERNAME_1, List.of(UUID.randomUUID()), null);
+            fanOut.cancel(true);
+            Assertions.assertThrows(CancellationException.class, fanOut::get);
+        }
+    }
+
+    Event anEvent(final LocalDateTime eventDate) {
+        return new Event(UUID.randomUUID(), "HariEvent", "HariDescription",
+                eventDate, null, null, null, null);
+    }
+}
@@ -0,0 +1,39 @@
+package com.gurukulams.event.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+class EventIndexTest {
+
+    @Test
+    void expire() {
+        EventIndex index = new EventIndex();
+        LocalDateTime now = LocalDateTime.now();
+        UUID past = UUID.randomUUID();
+        UUID moved = UUID.randomUUID();
+        UUID upcoming = UUID.randomUUID();
+        index.add(past, now.minusMinutes(1), List.of("t1"));
+        index.add(moved, now.plusHours(1), List.of("t1"));
+        index.add(upcoming, now.plusDays(1), List.of("t1", "t2"));
+        index.move(moved, now.plusDays(2));
+        index.move(UUID.randomUUID(), now.plusDays(2));
+
+        // Happened Events leave the index on match
+        List<UUID> matched = index.match(List.of("t1"));
+        Assertions.assertEquals(2, matched.size());
+        Assertions.assertFalse(matched.contains(past));
+
+        // Moved Events stay until their new date
+        index.expire(now.plusHours(2));
+        Assertions.assertEquals(2, index.match(List.of("t1")).size());
+        index.expire(now.plusDays(1));
+        Assertions.assertEquals(List.of(moved), index.match(List.of("t1")));
+        Assertions.assertEquals(List.of(), index.match(List.of("t2")));
+        index.expire(now.plusDays(2));
+        Assertions.assertEquals(List.of(), index.match(List.of("t1")));
+    }
+}
@@ -0,0 +1,216 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.model.Event;
+import com.gurukulams.event.util.TestUtil;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+
+import static com.gurukulams.event.store.EventStore.eventDate;
+import static com.gurukulams.event.store.EventStore.id;
+import static com.gurukulams.event.util.TestUtil.getDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Explains every statement issued by EventService and fails on
+ * sequential scans, so that plan regressions surface before production.
+ */
+class EventServicePlanTest {
+
+    private static final String USERNAME_1 = "hari";
+    private static final String USERNAME_2 = "hari2";
+
+    private final DataSource dataSource;
+    private final EventService eventService;
+    private final List<Recorded> recorded = new CopyOnWriteArrayList<>();
+    private final List<String> categories = List.of("c1", "c2");
+    private final List<String> tags = List.of("t1", "t2");
+
+    EventServicePlanTest() {
+        this.dataSource = getDataSource();
+        this.eventService = new EventService(recording(this.dataSource),
+                TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @BeforeEach
+    void before() throws SQLException {
+        eventService.delete();
+        recorded.clear();
+    }
+
+    @AfterEach
+    void after() throws SQLException {
+        recorded.clear();
+        eventService.delete();
+    }
+
+    @Test
+    void noSequentialScans() throws SQLException, MalformedURLException {
+        for (Locale locale : new Locale[]{null, Locale.GERMAN}) {
+            Event event = eventService.create(categories, tags, USERNAME_1,
+                    locale, anEvent());
+            eventService.read(USERNAME_1, event.id(), locale);
+            eventService.readAll(USERNAME_1, List.of(event.id()), locale);
+            eventService.update(event.id(), USERNAME_1, locale, event);
+            eventService.list(USERNAME_1, locale);
+            eventService.list(USERNAME_1, locale, categories);
+            Page<Event> page = eventService.list(USERNAME_1, locale, 1, null);
+            eventService.list(USERNAME_1, locale, 1, page.next());
+            eventService.list(USERNAME_1, locale, categories, 1, null);
+            try (Stream<Event> events = eventService.stream(USERNAME_1,
+                    locale, categories, 1)) {
+                events.count();
+            }
+            eventService.listByTags(USERNAME_1, locale, tags);
+            eventService.register(USERNAME_2, event.id());
+            eventService.isRegistered(USERNAME_2, event.id());
+            eventService.update(event.id(), USERNAME_1, null,
+                    event.withEventDate(LocalDateTime.now().plusMinutes(4)));
+            eventService.start(USERNAME_1, event.id(),
+                    new URL("https://github.com/techatpark/" + locale));
+            eventService.join(USERNAME_2, event.id());
+            eventService.delete(USERNAME_1, event.id());
+
+            expired(locale);
+            eventService.purge(LocalDateTime.now(), 1);
+            Event archived = expired(locale);
+            eventService.archive(LocalDateTime.now(), 1);
+            eventService.readArchived(USERNAME_1, archived.id(), locale);
+        }
+
+        Assertions.assertFalse(recorded.isEmpty());
+        try (Connection connection = this.dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set local enable_seqscan = off");
+            }
+            for (Recorded statement : recorded) {
+                String plan = explain(connection, statement);
+                Assertions.assertFalse(plan.contains("Seq Scan"),
+                        statement.sql() + System.lineSeparator() + plan);
+            }
+            connection.rollback();
+        }
+    }
+
+    private static String explain(final Connection connection,
+                                  final Recorded statement)
+            throws SQLException {
+        try (PreparedStatement explain = connection
+                .prepareStatement("explain " + statement.sql())) {
+            for (Bind bind : statement.binds()) {
+                invoke(bind.method(), explain, bind.args());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1))
+                            .append(System.lineSeparator());
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private DataSource recording(final DataSource target) {
+        return proxy(DataSource.class, (p, method, args) -> {
+            Object result = invoke(method, target, args);
+            return result instanceof Connection connection
+                    ? recording(connection) : result;
+        });
+    }
+
+    private Connection recording(final Connection target) {
+        return proxy(Connection.class, (p, method, args) -> {
+            Object result = invoke(method, target, args);
+            return method.getName().equals("prepareStatement")
+                    ? recording((PreparedStatement) result, (String) args[0])
+                    : result;
+        });
+    }
+
+    private PreparedStatement recording(final PreparedStatement target,
+                                        final String sql) {
+        List<Bind> binds = new ArrayList<>();
+        recorded.add(new Recorded(sql, binds));
+        return proxy(PreparedStatement.class, (p, method, args) -> {
+            if (method.getName().startsWith("set") && args.length > 1
+                    && args[0] instanceof Integer) {
+                binds.add(new Bind(method, args));
+            }
+            return invoke(method, target, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final Class<T> type,
+                               final java.lang.reflect.InvocationHandler h) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(),
+                new Class<?>[]{type}, h);
+    }
+
+    private static Object invoke(final Method method,
+                                 final Object target,
+                                 final Object[] args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Event expired(final Locale locale) throws SQLException {
+        Event event = eventService.create(categories, tags, USERNAME_1,
+                locale, anEvent());
+        eventService.register(USERNAME_2, event.id());
+        TestUtil.dataManager().getEventStore().update()
+                .set(eventDate(LocalDateTime.now().minusDays(5L)))
+                .where(id().eq(event.id()))
+                .execute(this.dataSource);
+        return event;
+    }
+
+    private Event anEvent() {
+        return new Event(UUID.randomUUID(),
+                "HariEvent",
+                "HariDescription",
+                LocalDateTime.now().plusDays(2L),
+                null,
+                null,
+                null,
+                null);
+    }
+
+    private record Recorded(String sql, List<Bind> binds) {
+    }
+
+    private record Bind(Method method, Object[] args) {
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
 
 import javax.sql.DataSource;
 
@@ -23,11 +24,20 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 
 class EventServiceTest {
@@ -106,6 +116,17 @@ class EventServiceTest {
         Assertions.assertTrue(eventService.read(USERNAME_1, event.id(), null).isPresent(), "Created Event");
     }
 
+    @Test
+    void createIsAtomic() throws SQLException {
+        // Category longer than events_category.category_id ? - Rolled back
+        Assertions.assertThrows(SQLException.class, () -> {
+            eventService.create(List.of("c1", "c".repeat(56)), tags,
+                    USERNAME_1, Locale.GERMAN, anEvent());
+        });
+        Assertions.assertEquals(0, eventService.list(USERNAME_1, null).size(),
+                "No partial Event");
+    }
+
     @Test
     void createLocalized() throws SQLException {
         final Event event = eventService.create(categories,tags, USERNAME_1
@@ -122,6 +143,103 @@ class EventServiceTest {
                 "Created Event");
     }
 
+    @Test
+    void readCached() throws SQLException {
+        EventCache cache = new EventCache(1, Duration.ofMinutes(1));
+        EventService cachedService = new EventService(this.dataSource,
+                TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                cache);
+        final Event event = cachedService.create(categories, tags, USERNAME_1,
+                null, anEvent());
+
+        cachedService.read(USERNAME_1, event.id(), null);
+        cachedService.read(USERNAME_1, event.id(), null);
+        Assertions.assertEquals(1, cache.missCount());
+        Assertions.assertEquals(1, cache.hitCount());
+
+        // Update invalidates in all locales
+        cachedService.read(USERNAME_1, event.id(), Locale.GERMAN);
+        Assertions.assertEquals(1, cache.evictionCount(), "Bounded");
+        cachedService.update(event.id(), USERNAME_1, Locale.GERMAN,
+                event.withTitle("HansiEvent"));
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertEquals("HansiEvent", cachedService.read(USERNAME_1,
+                event.id(), Locale.GERMAN).get().title());
+        cachedService.update(event.id(), USERNAME_1, null,
+                event.withTitle("MyTitle2"));
+        Assertions.assertEquals("MyTitle2", cachedService.read(USERNAME_1,
+                event.id(), null).get().title());
+
+        cachedService.delete(USERNAME_1, event.id());
+        Assertions.assertFalse(cachedService.read(USERNAME_1, event.id(),
+                null).isPresent());
+
+        cachedService.read(USERNAME_1, cachedService.create(categories, tags,
+                USERNAME_1, null, anEvent()).id(), null);
+        cachedService.delete();
+        Assertions.assertEquals(0, cache.size());
+
+        // Invalidation drops loads of the invalidated Event only
+        Event first = anEvent().withId(new UUID(0, 1));
+        Event second = anEvent().withId(new UUID(0, 2));
+        long firstStamp = cache.stamp(first.id());
+        long secondStamp = cache.stamp(second.id());
+        cache.invalidate(first.id());
+        cache.put(null, first, firstStamp);
+        cache.put(null, second, secondStamp);
+        Assertions.assertTrue(cache.get(first.id(), null).isEmpty());
+        Assertions.assertTrue(cache.get(second.id(), null).isPresent());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new EventCache(0, Duration.ofMinutes(1));
+        });
+    }
+
+    @Test
+    void readCacheExpiry() throws SQLException, InterruptedException {
+        EventCache cache = new EventCache(10, Duration.ofMillis(1));
+        EventService cachedService = new EventService(this.dataSource,
+                TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                cache);
+        final Event event = cachedService.create(categories, tags, USERNAME_1,
+                null, anEvent());
+        cachedService.read(USERNAME_1, event.id(), null);
+        Thread.sleep(5);
+        cachedService.read(USERNAME_1, event.id(), null);
+        Assertions.assertEquals(2, cache.missCount());
+        Assertions.assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void readAll() throws SQLException {
+        final Event event = eventService.create(categories, tags, USERNAME_1,
+                Locale.GERMAN, anEvent().withTitle("HansiEvent"));
+        final Event event2 = eventService.create(categories, tags, USERNAME_1,
+                null, anEvent());
+        List<UUID> ids = List.of(event.id(), event2.id(), UUID.randomUUID());
+
+        Map<UUID, Event> events = eventService.readAll(USERNAME_1, ids, null);
+        Assertions.assertEquals(2, events.size());
+        events = eventService.readAll(USERNAME_1, ids, Locale.GERMAN);
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals("HansiEvent", events.get(event.id()).title());
+        Assertions.assertEquals(0, eventService.readAll(USERNAME_1,
+                List.of(), null).size());
+
+        EventCache cache = new EventCache(10, Duration.ofMinutes(1));
+        EventService cachedService = new EventService(this.dataSource,
+                TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                cache);
+        cachedService.read(USERNAME_1, event.id(), null);
+        Assertions.assertEquals(2, cachedService.readAll(USERNAME_1, ids,
+                null).size());
+        Assertions.assertEquals(1, cache.hitCount());
+        Assertions.assertEquals(2, cache.size());
+    }
+
     @Test
     void update() throws SQLException {
 
@@ -180,6 +298,32 @@ class EventServiceTest {
         });
     }
 
+    @Test
+    void localeFallback() throws SQLException {
+        final Locale swissGerman = Locale.forLanguageTag("de-CH");
+        final Locale austrianGerman = Locale.forLanguageTag("de-AT");
+        final Event event = eventService.create(categories, tags, USERNAME_1,
+                Locale.GERMAN, anEvent().withTitle("HansiEvent"));
+        eventService.update(event.id(), USERNAME_1, swissGerman,
+                event.withTitle("GrueziEvent"));
+
+        Assertions.assertEquals("GrueziEvent", eventService.read(USERNAME_1,
+                event.id(), swissGerman).get().title(), "Language Tag");
+        Assertions.assertEquals("HansiEvent", eventService.read(USERNAME_1,
+                event.id(), austrianGerman).get().title(), "Language");
+        Assertions.assertEquals("HariEvent", eventService.read(USERNAME_1,
+                event.id(), Locale.FRENCH).get().title(), "Event");
+
+        Assertions.assertEquals("GrueziEvent", eventService.list(USERNAME_1,
+                swissGerman).get(0).title());
+        Assertions.assertEquals("HansiEvent", eventService.list(USERNAME_1,
+                austrianGerman, categories).get(0).title());
+        Assertions.assertEquals("GrueziEvent", eventService.readAll(USERNAME_1,
+                List.of(event.id()), swissGerman).get(event.id()).title());
+        Assertions.assertEquals(1, eventService.list(USERNAME_1,
+                Locale.FRENCH).size(), "No duplicates");
+    }
+
     @Test
     void register() throws SQLException {
 
@@ -197,14 +341,216 @@ class EventServiceTest {
         });
         Assertions.assertFalse(eventService.isRegistered(USERNAME_2, event.id()));
 
-        Assertions.assertTrue(eventService.register(USERNAME_2, event.id()));
+        Assertions.assertEquals(RegistrationStatus.REGISTERED,
+                eventService.register(USERNAME_2, event.id()));
 
         Assertions.assertTrue(eventService.isRegistered(USERNAME_2, event.id()));
 
-        // registering again ? - Invalid
-        Assertions.assertThrows(SQLException.class, () -> {
-            eventService.register(USERNAME_2, event.id());
-        });
+        // registering again ? - Idempotent
+        Assertions.assertEquals(RegistrationStatus.ALREADY_REGISTERED,
+                eventService.register(USERNAME_2, event.id()));
+        Assertions.assertTrue(eventService.seats(event.id()).isEmpty());
+    }
+
+    @Test
+    void limit() throws SQLException {
+
+        final Event event = eventService.create(categories, tags, USERNAME_1, null,
+                anEvent());
+
+        // Limit by non owner, invalid event or capacity ? - Invalid
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                eventService.limit(USERNAME_2, event.id(), 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                eventService.limit(USERNAME_1, UUID.randomUUID(), 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                eventService.limit(USERNAME_1, event.id(), -1));
+
+        eventService.limit(USERNAME_1, event.id(), 1);
+        Assertions.assertEquals(1, eventService.seats(event.id()).getAsInt());
+
+        Assertions.assertEquals(RegistrationStatus.REGISTERED,
+                eventService.register("l1", event.id()));
+        Assertions.assertEquals(0, eventService.seats(event.id()).getAsInt());
+        Assertions.assertEquals(RegistrationStatus.WAITLISTED,
+                eventService.register("l2", event.id()));
+        Assertions.assertEquals(RegistrationStatus.ALREADY_WAITLISTED,
+                eventService.register("l2", event.id()));
+        Assertions.assertEquals(RegistrationStatus.WAITLISTED,
+                eventService.register("l3", event.id()));
+        Assertions.assertFalse(eventService.isRegistered("l2", event.id()));
+
+        // Seat goes to the first waitlisted
+        Assertions.assertTrue(eventService.unregister("l1", event.id()));
+        Assertions.assertTrue(eventService.isRegistered("l2", event.id()));
+        Assertions.assertEquals(0, eventService.seats(event.id()).getAsInt());
+
+        Assertions.assertTrue(eventService.unregister("l3", event.id()));
+        Assertions.assertFalse(eventService.unregister("l3", event.id()));
+
+        // No one waitlisted, seat is released
+        Assertions.assertTrue(eventService.unregister("l2", event.id()));
+        Assertions.assertEquals(1, eventService.seats(event.id()).getAsInt());
+
+        eventService.register("l4", event.id());
+        eventService.register("l5", event.id());
+        eventService.register("l6", event.id());
+
+        // Raising the capacity registers the waitlisted
+        eventService.limit(USERNAME_1, event.id(), 4);
+        Assertions.assertTrue(eventService.isRegistered("l5", event.id()));
+        Assertions.assertTrue(eventService.isRegistered("l6", event.id()));
+        Assertions.assertEquals(1, eventService.seats(event.id()).getAsInt());
+
+        // Lowering it keeps the registered
+        eventService.limit(USERNAME_1, event.id(), 0);
+        Assertions.assertEquals(0, eventService.seats(event.id()).getAsInt());
+        Assertions.assertTrue(eventService.isRegistered("l4", event.id()));
+        Assertions.assertEquals(3, eventService.registrations(event.id()));
+
+        // Overbooked, unregistering shrinks back to the capacity first
+        eventService.limit(USERNAME_1, event.id(), 1);
+        Assertions.assertEquals(RegistrationStatus.WAITLISTED,
+                eventService.register("l7", event.id()));
+        Assertions.assertTrue(eventService.unregister("l4", event.id()));
+        Assertions.assertFalse(eventService.isRegistered("l7", event.id()));
+        Assertions.assertEquals(0, eventService.seats(event.id()).getAsInt());
+        Assertions.assertTrue(eventService.unregister("l5", event.id()));
+        Assertions.assertFalse(eventService.isRegistered("l7", event.id()));
+        Assertions.assertEquals(0, eventService.seats(event.id()).getAsInt());
+        Assertions.assertTrue(eventService.unregister("l6", event.id()));
+        Assertions.assertTrue(eventService.isRegistered("l7", event.id()));
+        Assertions.assertEquals(0, eventService.seats(event.id()).getAsInt());
+
+        Assertions.assertTrue(eventService.delete(USERNAME_1, event.id()));
+    }
+
+    @Test
+    void registerAll() throws SQLException {
+
+        final Event event = eventService.create(categories, tags, USERNAME_1, null,
+                anEvent());
+
+        // Invalid event ? - Invalid
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                eventService.registerAll(UUID.randomUUID(), List.of("l1")));
+        Assertions.assertTrue(eventService.registerAll(event.id(),
+                List.of()).isEmpty());
+
+        // Owner is rejected, the others are registered
+        Assertions.assertEquals(Map.of(USERNAME_1,
+                        RegistrationStatus.REJECTED),
+                eventService.registerAll(event.id(), List.of(USERNAME_1)));
+        Map<String, RegistrationStatus> withOwner = eventService
+                .registerAll(event.id(), List.of(USERNAME_1, "l0"));
+        Assertions.assertEquals(List.of(USERNAME_1, "l0"),
+                List.copyOf(withOwner.keySet()));
+        Assertions.assertEquals(RegistrationStatus.REJECTED,
+                withOwner.get(USERNAME_1));
+        Assertions.assertEquals(RegistrationStatus.REGISTERED,
+                withOwner.get("l0"));
+        Assertions.assertFalse(eventService.isRegistered(USERNAME_1,
+                event.id()));
+
+        eventService.register("l2", event.id());
+        final List<String> learners = IntStream.range(0, 1000)
+                .mapToObj(i -> "learner" + i).toList();
+        Map<String, RegistrationStatus> statuses =
+                eventService.registerAll(event.id(),
+                        Stream.concat(Stream.of("l1", "l2", "l1"),
+                                learners.stream()).toList());
+        Assertions.assertEquals(1002, statuses.size(), "No duplicates");
+        Assertions.assertEquals(List.of("l1", "l2"),
+                statuses.keySet().stream().limit(2).toList(), "Given order");
+        Assertions.assertEquals(RegistrationStatus.REGISTERED,
+                statuses.get("l1"));
+        Assertions.assertEquals(RegistrationStatus.ALREADY_REGISTERED,
+                statuses.get("l2"));
+        Assertions.assertTrue(eventService.isRegistered("learner999",
+                event.id()));
+
+        // Seats go in the given order, the others are waitlisted
+        final Event limited = eventService.create(categories, tags,
+                USERNAME_1, null, anEvent());
+        eventService.limit(USERNAME_1, limited.id(), 10);
+        eventService.register("l3", limited.id());
+        statuses = eventService.registerAll(limited.id(), learners);
+        Assertions.assertEquals(9, statuses.values().stream()
+                .filter(RegistrationStatus.REGISTERED::equals).count());
+        Assertions.assertEquals(RegistrationStatus.REGISTERED,
+                statuses.get("learner8"));
+        Assertions.assertEquals(RegistrationStatus.WAITLISTED,
+                statuses.get("learner9"));
+        Assertions.assertEquals(0, eventService.seats(limited.id()).getAsInt());
+
+        statuses = eventService.registerAll(limited.id(),
+                List.of("learner0", "learner9"));
+        Assertions.assertEquals(Map.of(
+                "learner0", RegistrationStatus.ALREADY_REGISTERED,
+                "learner9", RegistrationStatus.ALREADY_WAITLISTED), statuses);
+    }
+
+    @Test
+    void roster() throws SQLException {
+
+        final Event event = eventService.create(categories, tags, USERNAME_1, null,
+                anEvent());
+        Assertions.assertEquals(0, eventService.registrations(event.id()));
+        eventService.registerAll(event.id(), IntStream.range(0, 25)
+                .mapToObj(i -> "learner" + (100 + i)).toList());
+
+        // Non owner, invalid page size or token ? - Invalid
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                eventService.roster(USERNAME_2, event.id(), 10, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                eventService.roster(USERNAME_1, UUID.randomUUID(), 10, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                eventService.roster(USERNAME_1, event.id(), 0, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                eventService.roster(USERNAME_1, event.id(), 10, "%%"));
+
+        Page<String> page = eventService.roster(USERNAME_1, event.id(), 10,
+                null);
+        Assertions.assertEquals("learner100", page.items().get(0));
+        Assertions.assertTrue(page.hasNext());
+        page = eventService.roster(USERNAME_1, event.id(), 10, page.next());
+        Assertions.assertEquals("learner110", page.items().get(0));
+        page = eventService.roster(USERNAME_1, event.id(), 10, page.next());
+        Assertions.assertEquals(5, page.items().size());
+        Assertions.assertFalse(page.hasNext());
+
+        Assertions.assertEquals(25, eventService.registrations(event.id()));
+        eventService.register(USERNAME_2, event.id());
+        eventService.unregister("learner100", event.id());
+        eventService.unregister("learner101", event.id());
+        final UUID unknown = UUID.randomUUID();
+        Assertions.assertEquals(Map.of(event.id(), 24, unknown, 0),
+                eventService.registrations(List.of(event.id(), unknown)));
+    }
+
+    @Test
+    void registerConcurrently() throws Exception {
+
+        final Event event = eventService.create(categories, tags, USERNAME_1, null,
+                anEvent());
+        eventService.limit(USERNAME_1, event.id(), 20);
+
+        final List<Future<RegistrationStatus>> registrations;
+        try (ExecutorService executor =
+                     Executors.newVirtualThreadPerTaskExecutor()) {
+            registrations = IntStream.range(0, 50)
+                    .mapToObj(i -> executor.submit(() ->
+                            eventService.register("learner" + i, event.id())))
+                    .toList();
+        }
+        Map<RegistrationStatus, Integer> statuses = new HashMap<>();
+        for (Future<RegistrationStatus> registration : registrations) {
+            statuses.merge(registration.get(), 1, Integer::sum);
+        }
+        Assertions.assertEquals(Map.of(RegistrationStatus.REGISTERED, 20,
+                RegistrationStatus.WAITLISTED, 30), statuses);
+        Assertions.assertEquals(0, eventService.seats(event.id()).getAsInt());
+        Assertions.assertEquals(20, eventService.registrations(event.id()));
     }
 
     @Test
@@ -307,6 +653,70 @@ class EventServiceTest {
     }
 
 
+    @Test
+    void purge() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            Event expired = eventService.create(categories, tags, USERNAME_1,
+                    Locale.GERMAN, anEvent());
+            eventService.register(USERNAME_2, expired.id());
+            this.eventStore.update()
+                    .set(eventDate(LocalDateTime.now().minusDays(5L)))
+                    .where(id().eq(expired.id()))
+                    .execute(this.dataSource);
+        }
+        final Event event = eventService.create(categories, tags, USERNAME_1,
+                null, anEvent());
+
+        Assertions.assertEquals(3, eventService.purge(LocalDateTime.now(), 2));
+        Assertions.assertEquals(0, eventService.purge(LocalDateTime.now(), 2));
+        Assertions.assertTrue(eventService.read(USERNAME_1, event.id(), null)
+                .isPresent(), "Upcoming Event");
+        Assertions.assertEquals(1, eventService.listByTags(USERNAME_1, null,
+                tags).size());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            eventService.purge(LocalDateTime.now(), 0);
+        });
+    }
+
+    @Test
+    void archive() throws SQLException {
+        final Event event = eventService.create(categories, tags, USERNAME_1,
+                Locale.GERMAN, anEvent().withTitle("HansiEvent"));
+        eventService.register(USERNAME_2, event.id());
+        this.eventStore.update()
+                .set(eventDate(LocalDateTime.now().minusDays(5L)))
+                .where(id().eq(event.id()))
+                .execute(this.dataSource);
+        final Event upcoming = eventService.create(categories, tags,
+                USERNAME_1, null, anEvent());
+
+        try (EventArchiver archiver = new EventArchiver(eventService,
+                Duration.ofDays(1), 10)) {
+            archiver.start(Duration.ofHours(1));
+            archiver.run();
+            Assertions.assertEquals(1, archiver.archivedCount());
+        }
+
+        // Failures are logged and retried on next run
+        try (EventArchiver archiver = new EventArchiver(unreachableService(),
+                Duration.ofDays(1), 10)) {
+            archiver.run();
+            Assertions.assertEquals(0, archiver.archivedCount());
+        }
+
+        Assertions.assertFalse(eventService.read(USERNAME_1, event.id(), null)
+                .isPresent(), "Moved from live");
+        Assertions.assertTrue(eventService.read(USERNAME_1, upcoming.id(), null)
+                .isPresent(), "Upcoming stays live");
+        Assertions.assertTrue(eventService.readArchived(USERNAME_1, event.id(),
+                null).isPresent(), "Archived");
+        Assertions.assertEquals("HansiEvent", eventService.readArchived(
+                USERNAME_1, event.id(), Locale.GERMAN).get().title());
+        Assertions.assertFalse(eventService.readArchived(USERNAME_1,
+                upcoming.id(), null).isPresent());
+    }
+
     @Test
     void listUserEvents() throws SQLException {
         listUserEvents(null);
@@ -333,6 +743,130 @@ class EventServiceTest {
         Assertions.assertEquals(3, eventService.list(USERNAME_2, locale).size());
     }
 
+    @Test
+    void feed() throws SQLException {
+        final Event first = eventService.create(categories, tags, USERNAME_1,
+                null, anEvent());
+        final Event second = eventService.create(categories, tags,
+                USERNAME_1, null, anEvent().withEventDate(
+                        LocalDateTime.now().plusDays(3L)));
+        eventService.registerAll(first.id(), List.of(USERNAME_2));
+        eventService.register(USERNAME_2, second.id());
+        Assertions.assertEquals(List.of(first.id(), second.id()),
+                eventService.list(USERNAME_2, null, 10, null).items()
+                        .stream().map(Event::id).toList());
+
+        // Moved in the feeds of owner and learners
+        eventService.update(second.id(), USERNAME_1, null,
+                second.withEventDate(LocalDateTime.now().plusDays(1L)));
+        Assertions.assertEquals(List.of(second.id(), first.id()),
+                eventService.list(USERNAME_2, null, 10, null).items()
+                        .stream().map(Event::id).toList());
+        Assertions.assertEquals(second.id(),
+                eventService.list(USERNAME_1, null, 1, null)
+                        .items().get(0).id());
+
+        eventService.unregister(USERNAME_2, second.id());
+        Assertions.assertEquals(List.of(first.id()),
+                eventService.list(USERNAME_2, null).stream()
+                        .map(Event::id).toList());
+
+        // Waitlisted until promoted
+        eventService.limit(USERNAME_1, second.id(), 0);
+        eventService.register(USERNAME_2, second.id());
+        Assertions.assertEquals(1, eventService.list(USERNAME_2, null).size());
+        eventService.limit(USERNAME_1, second.id(), 1);
+        Assertions.assertEquals(2, eventService.list(USERNAME_2, null).size());
+    }
+
+    @Test
+    void changes() throws SQLException, MalformedURLException {
+        final Event event = eventService.create(categories, tags, USERNAME_1,
+                null, anEvent());
+        eventService.update(event.id(), USERNAME_1, Locale.GERMAN,
+                event.withTitle("HansiEvent"));
+        eventService.limit(USERNAME_1, event.id(), 2);
+        eventService.register(USERNAME_2, event.id());
+        eventService.registerAll(event.id(), List.of("learner1", "learner2"));
+        eventService.unregister(USERNAME_2, event.id());
+        eventService.update(event.id(), USERNAME_1, null,
+                event.withEventDate(LocalDateTime.now().plusMinutes(4)));
+        eventService.start(USERNAME_1, event.id(),
+                new URL("https://github.com/techatpark"));
+        eventService.delete(USERNAME_1, event.id());
+
+        // Read in batches from the position of the previous batch
+        List<String> read = new ArrayList<>();
+        Changes changes = eventService.changes(null, 4);
+        while (!changes.items().isEmpty()) {
+            for (EventChange change : changes.items()) {
+                Assertions.assertEquals(event.id(), change.eventId());
+                read.add(change.type() + " " + change.userName());
+            }
+            Assertions.assertEquals(changes.items()
+                    .get(changes.items().size() - 1).position(),
+                    changes.position());
+            changes = eventService.changes(changes.position(), 4);
+        }
+        Assertions.assertEquals(List.of("CREATED hari", "UPDATED hari",
+                "REGISTERED hari2", "REGISTERED learner1",
+                "UNREGISTERED hari2", "REGISTERED learner2",
+                "UPDATED hari", "STARTED hari", "DELETED hari"), read);
+
+        // Resumed from the position of any change
+        EventChange second = eventService.changes(null, 2).items().get(1);
+        Assertions.assertEquals(ChangeType.UPDATED, eventService.changes(
+                eventService.changes(null, 1).position(), 1)
+                .items().get(0).type());
+        Assertions.assertEquals(ChangeType.REGISTERED, eventService.changes(
+                second.position(), 1).items().get(0).type());
+
+        // Same position until there are new changes
+        final String position = changes.position();
+        Assertions.assertEquals(position,
+                eventService.changes(position, 4).position());
+        final Event expired = eventService.create(categories, tags,
+                USERNAME_1, null, anEvent());
+        this.eventStore.update()
+                .set(eventDate(LocalDateTime.now().minusDays(5L)))
+                .where(id().eq(expired.id()))
+                .execute(this.dataSource);
+        eventService.purge(LocalDateTime.now(), 10);
+        List<EventChange> items = eventService.changes(position, 4).items();
+        Assertions.assertEquals(List.of(ChangeType.CREATED,
+                ChangeType.EXPIRED), items.stream()
+                .map(EventChange::type).toList());
+        Assertions.assertNull(items.get(1).userName());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            eventService.changes("invalid", 4);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            eventService.changes(null, 0);
+        });
+
+        // Compacted past the retention
+        try (ChangeCompactor compactor = new ChangeCompactor(eventService,
+                Duration.ofDays(1), 4)) {
+            compactor.start(Duration.ofHours(1));
+            compactor.run();
+            Assertions.assertEquals(0, compactor.compactedCount());
+        }
+        // Failures are logged and retried on next run
+        try (ChangeCompactor compactor = new ChangeCompactor(
+                unreachableService(), Duration.ofDays(1), 4)) {
+            compactor.run();
+            Assertions.assertEquals(0, compactor.compactedCount());
+        }
+        Assertions.assertEquals(11, eventService.compactChanges(
+                LocalDateTime.now().plusMinutes(1), 4));
+        Assertions.assertTrue(eventService.changes(null, 4).items()
+                .isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            eventService.compactChanges(LocalDateTime.now(), 0);
+        });
+    }
+
     @Test
     void list() throws SQLException {
 
@@ -344,6 +878,9 @@ class EventServiceTest {
         List<Event> listofEvents = eventService.list(USERNAME_1, null, categories);
         Assertions.assertEquals(2, listofEvents.size());
 
+        // Repeated categories ? - Counted once
+        Assertions.assertEquals(2, eventService.list(USERNAME_1, null,
+                List.of("c1", "c1")).size());
 
         // Check it ignores past events
 
@@ -356,6 +893,34 @@ class EventServiceTest {
 
     }
 
+    @Test
+    void listIndexed() throws SQLException {
+        final Event event = eventService.create(categories, tags, USERNAME_1,
+                Locale.GERMAN, anEvent().withTitle("HansiEvent"));
+        eventService.indexCategories();
+        eventService.create(List.of("c1"), tags, USERNAME_1, null,
+                anEvent());
+
+        Assertions.assertEquals(2, eventService.list(USERNAME_2, null,
+                List.of("c1")).size());
+        Assertions.assertEquals(1, eventService.list(USERNAME_2, null,
+                categories).size());
+        Assertions.assertEquals("HansiEvent", eventService.list(USERNAME_2,
+                Locale.GERMAN, categories).get(0).title());
+        Assertions.assertEquals(0, eventService.list(USERNAME_2, null,
+                List.of("c3")).size());
+
+        eventService.delete(USERNAME_1, event.id());
+        Assertions.assertEquals(0, eventService.list(USERNAME_2, null,
+                categories).size());
+
+        // Stays indexed once emptied
+        cleanUp();
+        eventService.create(categories, tags, USERNAME_1, null, anEvent());
+        Assertions.assertEquals(1, eventService.list(USERNAME_2, null,
+                categories).size());
+    }
+
     @Test
     void listLocalized() throws SQLException {
 
@@ -373,6 +938,127 @@ class EventServiceTest {
     }
 
 
+    @Test
+    void listPage() throws SQLException {
+        listPage(null);
+        cleanUp();
+        listPage(Locale.GERMAN);
+    }
+
+    void listPage(Locale locale) throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            eventService.create(categories, tags, USERNAME_1, locale,
+                    anEvent().withEventDate(LocalDateTime.now().plusDays(i + 1)));
+        }
+
+        Page<Event> page = eventService.list(USERNAME_1, locale, 2, null);
+        Assertions.assertEquals(2, page.items().size());
+        Assertions.assertTrue(page.hasNext());
+        Assertions.assertTrue(page.items().get(0).eventDate()
+                .isBefore(page.items().get(1).eventDate()), "Ordered");
+        page = eventService.list(USERNAME_1, locale, 2, page.next());
+        Assertions.assertEquals(1, page.items().size());
+        Assertions.assertFalse(page.hasNext());
+
+        page = eventService.list(USERNAME_2, locale, categories, 3, null);
+        Assertions.assertEquals(3, page.items().size());
+        Assertions.assertFalse(page.hasNext());
+        page = eventService.list(USERNAME_2, locale, categories, 1, null);
+        page = eventService.list(USERNAME_2, locale, categories, 1,
+                page.next());
+        Assertions.assertEquals(1, page.items().size());
+        Assertions.assertTrue(page.hasNext());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            eventService.list(USERNAME_1, locale, 0, null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            eventService.list(USERNAME_1, locale, 2, "invalid");
+        });
+    }
+
+    @Test
+    void stream() throws SQLException {
+        stream(null);
+        cleanUp();
+        stream(Locale.GERMAN);
+    }
+
+    void stream(Locale locale) throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            eventService.create(categories, tags, USERNAME_1, locale,
+                    anEvent());
+        }
+        try (Stream<Event> events = eventService.stream(USERNAME_1,
+                locale, 2)) {
+            Assertions.assertEquals(3, events.count());
+        }
+        try (Stream<Event> events = eventService.stream(USERNAME_2,
+                locale, 2)) {
+            Assertions.assertEquals(0, events.count());
+        }
+        try (Stream<Event> events = eventService.stream(USERNAME_2,
+                locale, categories, 1)) {
+            Assertions.assertEquals(3, events.count());
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            eventService.stream(USERNAME_1, locale, 0);
+        });
+    }
+
+    @Test
+    void listByTags() throws SQLException {
+        listByTags(null);
+        cleanUp();
+        listByTags(Locale.GERMAN);
+    }
+
+    void listByTags(Locale locale) throws SQLException {
+        final Event event = eventService.create(categories, tags, USERNAME_1,
+                locale, anEvent());
+        eventService.create(categories, List.of("t1"), USERNAME_1,
+                locale, anEvent());
+
+        Assertions.assertEquals(2,
+                eventService.listByTags(USERNAME_1, locale, List.of("t1")).size());
+        Assertions.assertEquals(1,
+                eventService.listByTags(USERNAME_1, locale, tags).size());
+        Assertions.assertEquals(0,
+                eventService.listByTags(USERNAME_1, locale, List.of("t3")).size());
+        Assertions.assertEquals(0,
+                eventService.listByTags(USERNAME_1, locale, List.of()).size());
+
+        // Index is loaded from the database for a new service
+        EventService anotherService = new EventService(this.dataSource,
+                TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        Assertions.assertEquals(1,
+                anotherService.listByTags(USERNAME_1, locale, tags).size());
+
+        eventService.delete(USERNAME_1, event.id());
+        Assertions.assertEquals(1,
+                eventService.listByTags(USERNAME_1, locale, List.of("t1")).size());
+        Assertions.assertEquals(0,
+                eventService.listByTags(USERNAME_1, locale, List.of("t2")).size());
+
+        eventService.create(categories, List.of("t2"), USERNAME_1,
+                locale, anEvent());
+        Assertions.assertEquals(1,
+                eventService.listByTags(USERNAME_1, locale, List.of("t2")).size());
+    }
+
+    /**
+     * Gets a service of an unreachable database.
+     *
+     * @return the service
+     */
+    EventService unreachableService() {
+        PGSimpleDataSource unreachable = new PGSimpleDataSource();
+        unreachable.setURL("jdbc:postgresql://localhost:1/gurukulams_event");
+        return new EventService(unreachable, TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
     /**
      * Gets practice.
      *
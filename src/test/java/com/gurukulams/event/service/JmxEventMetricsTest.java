@@ -0,0 +1,152 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.model.Event;
+import com.gurukulams.event.util.TestUtil;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+
+import static com.gurukulams.event.util.TestUtil.getDataSource;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class JmxEventMetricsTest {
+
+    private static final String USERNAME_1 = "hari";
+    private static final String USERNAME_2 = "hari2";
+
+    private final String name = "test-" + UUID.randomUUID();
+    private final JmxEventMetrics metrics;
+    private final EventService eventService;
+
+    JmxEventMetricsTest() {
+        this.metrics = new JmxEventMetrics(name);
+        this.eventService = new EventService(getDataSource(),
+                TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                null, metrics);
+    }
+
+    @BeforeEach
+    void before() throws SQLException {
+        eventService.delete();
+    }
+
+    @AfterEach
+    void after() throws SQLException {
+        eventService.delete();
+        metrics.close();
+    }
+
+    @Test
+    void record() throws Exception {
+        Event event = eventService.create(List.of("c1", "c2"),
+                List.of("t1"), USERNAME_1, null, anEvent());
+        EventMethodMXBean create = metrics.method("create");
+        Assertions.assertEquals(1, create.getCount());
+        Assertions.assertEquals(5, create.getStatementCount(),
+                "Event, feed, categories, tags and outbox");
+        Assertions.assertEquals(6, create.getRowsWritten());
+        Assertions.assertTrue(create.getLatencyP50Micros() > 0);
+        Assertions.assertTrue(create.getLatencyP999Micros()
+                >= create.getLatencyP99Micros());
+
+        eventService.read(USERNAME_1, event.id(), null);
+        EventMethodMXBean read = metrics.method("read");
+        Assertions.assertEquals(1, read.getStatementCount());
+        Assertions.assertEquals(1, read.getRowsRead());
+
+        // Read within register is recorded as part of register
+        eventService.register(USERNAME_2, event.id());
+        Assertions.assertEquals(1, read.getCount());
+        Assertions.assertEquals(7,
+                metrics.method("register").getStatementCount(),
+                "Read, learner, seats, new counter, feed and outbox");
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> eventService.register(USERNAME_2, UUID.randomUUID()));
+        EventMethodMXBean register = metrics.method("register");
+        Assertions.assertEquals(2, register.getCount());
+        Assertions.assertEquals(1, register.getFailureCount());
+        Assertions.assertEquals(Map.of("IllegalArgumentException", 1L),
+                register.getFailures());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Assertions.assertEquals(1L, server.getAttribute(
+                objectName("create"), "Count"));
+        Assertions.assertEquals(6L, server.getAttribute(
+                objectName("create"), "RowsWritten"));
+        Assertions.assertNull(metrics.method("join"));
+
+        metrics.close();
+        Assertions.assertFalse(server.isRegistered(objectName("create")));
+        metrics.close();
+    }
+
+    @Test
+    void duplicateName() throws SQLException {
+        String duplicate = "duplicate-" + UUID.randomUUID();
+        try (JmxEventMetrics first = new JmxEventMetrics(duplicate);
+             JmxEventMetrics second = new JmxEventMetrics(duplicate)) {
+            first.record("read", 1_000, 1, 1, 0, null);
+            // Recorded even though not exported
+            second.record("read", 1_000, 1, 1, 0, null);
+            Assertions.assertEquals(1, second.method("read").getCount());
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    void countStatements() throws SQLException {
+        DataSource dataSource = CountingDataSource.of(getDataSource());
+        Invocation invocation = Invocation.begin("test");
+        Assertions.assertNull(Invocation.begin("nested"));
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("select 1");
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "delete from events where id = ?")) {
+                ps.setObject(1, UUID.randomUUID());
+                Assertions.assertFalse(ps.execute());
+            }
+        } finally {
+            invocation.end();
+        }
+        Assertions.assertEquals("test", invocation.method());
+        Assertions.assertEquals(2, invocation.statements());
+        Assertions.assertEquals(0, invocation.rowsWritten());
+        Assertions.assertNull(Invocation.current());
+
+        // Not counted outside of an invocation
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            Assertions.assertTrue(statement.executeQuery("select 1").next());
+            Assertions.assertTrue(connection.isWrapperFor(Connection.class));
+        }
+    }
+
+    private ObjectName objectName(final String method) throws Exception {
+        return new ObjectName("com.gurukulams.event:type=EventService,name="
+                + ObjectName.quote(name) + ",method=" + method);
+    }
+
+    Event anEvent() {
+        return new Event(UUID.randomUUID(), "HariEvent", "HariDescription",
+                LocalDateTime.now().plusDays(2), null, null, null, null);
+    }
+}
@@ -0,0 +1,370 @@
+package com.gurukulams.event.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import javax.sql.DataSource;
+
+import static com.gurukulams.event.util.TestUtil.getDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class PooledDataSourceTest {
+
+    private static final String SELECT = "select ?";
+
+    @Test
+    void reuse() throws SQLException {
+        List<Connection> physicals = new ArrayList<>();
+        try (PooledDataSource pool = new PooledDataSource(
+                recording(getDataSource(), physicals), 2)) {
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertEquals(1, pool.activeCount());
+                // Unwrapped as a Connection, it is still returned on close
+                Assertions.assertSame(connection,
+                        connection.unwrap(Connection.class));
+                Assertions.assertEquals(1, select(connection, 1));
+            }
+            Assertions.assertEquals(0, pool.activeCount());
+            Assertions.assertEquals(1, pool.idleCount());
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertEquals(2, select(connection, 2));
+            }
+            Assertions.assertEquals(1, physicals.size());
+            Assertions.assertEquals(1, pool.size());
+            Assertions.assertEquals(2, pool.borrowCount());
+            Assertions.assertEquals(1, pool.statementMissCount());
+            Assertions.assertEquals(1, pool.statementHitCount());
+        }
+    }
+
+    @Test
+    void statements() throws SQLException {
+        try (PooledDataSource pool = new PooledDataSource(
+                getDataSource(), 1, Duration.ofSeconds(1),
+                Duration.ZERO, 1);
+             Connection connection = pool.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(SELECT);
+            Assertions.assertSame(connection, statement.getConnection());
+            Assertions.assertEquals(statement, statement);
+            Assertions.assertEquals(System.identityHashCode(statement),
+                    statement.hashCode());
+            // Same sql in use is prepared again
+            try (PreparedStatement other = connection.prepareStatement(SELECT)) {
+                Assertions.assertNotSame(statement, other);
+            }
+            statement.close();
+            statement.close();
+            Assertions.assertTrue(statement.isClosed());
+            Assertions.assertThrows(SQLException.class,
+                    () -> statement.setInt(1, 1));
+
+            // Least recently used beyond the cache size is evicted
+            connection.prepareStatement("select 1").close();
+            Assertions.assertEquals(3, pool.statementMissCount());
+            connection.prepareStatement(SELECT).close();
+            Assertions.assertEquals(4, pool.statementMissCount());
+
+            // Statement closed through its result is prepared again
+            try (PreparedStatement statement2 =
+                         connection.prepareStatement(SELECT)) {
+                statement2.setInt(1, 1);
+                ResultSet resultSet = statement2.executeQuery();
+                resultSet.getStatement().close();
+            }
+            connection.prepareStatement(SELECT).close();
+            Assertions.assertEquals(5, pool.statementMissCount());
+
+            // Other statements are closed with the connection
+            Statement plain = connection.createStatement();
+            connection.close();
+            Assertions.assertTrue(plain.isClosed());
+            Assertions.assertTrue(connection.isClosed());
+            Assertions.assertThrows(SQLException.class,
+                    connection::createStatement);
+        }
+    }
+
+    @Test
+    void reset() throws SQLException {
+        List<Connection> physicals = new ArrayList<>();
+        try (PooledDataSource pool = new PooledDataSource(
+                recording(getDataSource(), physicals), 1)) {
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+            }
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertTrue(connection.getAutoCommit());
+                // Broken connections are not returned to the pool
+                physicals.get(0).close();
+            }
+            Assertions.assertEquals(0, pool.size());
+        }
+    }
+
+    @Test
+    void session() throws SQLException {
+        try (PooledDataSource pool = new PooledDataSource(
+                getDataSource(), 1)) {
+            try (Connection connection = pool.getConnection()) {
+                connection.setReadOnly(true);
+                connection.setTransactionIsolation(
+                        Connection.TRANSACTION_SERIALIZABLE);
+                connection.setSchema("pg_catalog");
+                try (Statement statement = connection.createStatement()) {
+                    Assertions.assertSame(connection,
+                            statement.getConnection());
+                    statement.execute(" SET statement_timeout = 1000");
+                }
+                PreparedStatement statement =
+                        connection.prepareStatement(SELECT);
+                statement.setFetchSize(10);
+                statement.setMaxRows(1);
+                statement.setQueryTimeout(5);
+                statement.close();
+            }
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertFalse(connection.isReadOnly());
+                Assertions.assertEquals(Connection.TRANSACTION_READ_COMMITTED,
+                        connection.getTransactionIsolation());
+                Assertions.assertEquals("public", connection.getSchema());
+                Assertions.assertEquals("0", show(connection,
+                        "statement_timeout"));
+                try (PreparedStatement statement =
+                             connection.prepareStatement(SELECT)) {
+                    Assertions.assertEquals(0, statement.getFetchSize());
+                    Assertions.assertEquals(0, statement.getMaxRows());
+                    Assertions.assertEquals(0, statement.getQueryTimeout());
+                }
+                // Prepared SET is reset as well
+                connection.prepareStatement("set statement_timeout = 1000")
+                        .executeUpdate();
+            }
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertEquals("0", show(connection,
+                        "statement_timeout"));
+            }
+            Assertions.assertEquals(1, pool.size());
+        }
+    }
+
+    @Test
+    void exhausted() throws SQLException {
+        try (PooledDataSource pool = new PooledDataSource(
+                getDataSource(), 1, Duration.ofMillis(100),
+                Duration.ZERO, 0);
+             Connection connection = pool.getConnection()) {
+            Assertions.assertThrows(SQLTransientConnectionException.class,
+                    pool::getConnection);
+            Assertions.assertEquals(1, pool.timeoutCount());
+            Assertions.assertEquals(0, pool.waitingCount());
+            Assertions.assertEquals(1, select(connection, 1));
+            Assertions.assertEquals(0, pool.statementHitCount());
+        }
+    }
+
+    @Test
+    void interrupted() throws SQLException {
+        try (PooledDataSource pool = new PooledDataSource(
+                getDataSource(), 1);
+             Connection connection = pool.getConnection()) {
+            Thread.currentThread().interrupt();
+            Assertions.assertThrows(SQLException.class, pool::getConnection);
+            Assertions.assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    void leakAndValidation() throws Exception {
+        List<Connection> physicals = new ArrayList<>();
+        try (PooledDataSource pool = new PooledDataSource(
+                recording(getDataSource(), physicals), 2,
+                Duration.ofSeconds(1), Duration.ofMillis(100), 8)) {
+            try (Connection connection = pool.getConnection()) {
+                Thread.sleep(600);
+                Assertions.assertEquals(1, pool.leakCount());
+                Assertions.assertEquals(1, select(connection, 1));
+            }
+            // Idle connection is validated before reuse, dead are discarded
+            Thread.sleep(600);
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertEquals(1, select(connection, 1));
+                physicals.get(0).close();
+            }
+            Assertions.assertEquals(0, pool.size());
+        }
+    }
+
+    @Test
+    void deadIdle() throws Exception {
+        List<Connection> physicals = new ArrayList<>();
+        try (PooledDataSource pool = new PooledDataSource(
+                recording(getDataSource(), physicals), 1)) {
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertEquals(1, select(connection, 1));
+            }
+            physicals.get(0).close();
+            Thread.sleep(600);
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertEquals(1, select(connection, 1));
+            }
+            Assertions.assertEquals(2, physicals.size());
+            Assertions.assertEquals(1, pool.size());
+        }
+    }
+
+    @Test
+    void failures() throws Exception {
+        DataSource failing = failing(getDataSource());
+        try (PooledDataSource pool = new PooledDataSource(failing, 1)) {
+            try (Connection connection = pool.getConnection()) {
+                connection.createStatement();
+            }
+            Thread.sleep(600);
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertEquals(1, select(connection, 1));
+            }
+            Assertions.assertEquals(1, pool.size());
+        }
+    }
+
+    @Test
+    void unreachable() {
+        PGSimpleDataSource unreachable = new PGSimpleDataSource();
+        unreachable.setURL("jdbc:postgresql://localhost:1/gurukulams_event");
+        try (PooledDataSource pool = new PooledDataSource(unreachable, 1)) {
+            Assertions.assertThrows(SQLException.class, pool::getConnection);
+            Assertions.assertThrows(SQLException.class, pool::getConnection,
+                    "Permit is released on failure");
+            Assertions.assertEquals(0, pool.size());
+        }
+    }
+
+    @Test
+    void closed() throws SQLException {
+        PooledDataSource pool = new PooledDataSource(getDataSource(), 2);
+        Connection idle = pool.getConnection();
+        Connection active = pool.getConnection();
+        idle.close();
+        pool.close();
+        Assertions.assertEquals(1, pool.size());
+        active.close();
+        Assertions.assertEquals(0, pool.size());
+        Assertions.assertThrows(SQLException.class, pool::getConnection);
+    }
+
+    @Test
+    void dataSource() throws SQLException {
+        DataSource simple = getDataSource();
+        try (PooledDataSource pool = new PooledDataSource(simple, 1)) {
+            Assertions.assertThrows(SQLFeatureNotSupportedException.class,
+                    () -> pool.getConnection("tom", "password"));
+            pool.setLoginTimeout(5);
+            Assertions.assertEquals(5, pool.getLoginTimeout());
+            pool.setLogWriter(null);
+            Assertions.assertNull(pool.getLogWriter());
+            Assertions.assertThrows(SQLFeatureNotSupportedException.class,
+                    pool::getParentLogger);
+            Assertions.assertSame(pool, pool.unwrap(PooledDataSource.class));
+            Assertions.assertTrue(pool.isWrapperFor(DataSource.class));
+            Assertions.assertTrue(pool.isWrapperFor(PGSimpleDataSource.class));
+            Assertions.assertSame(simple, pool.unwrap(PGSimpleDataSource.class));
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertEquals(connection, connection);
+                Assertions.assertEquals(System.identityHashCode(connection),
+                        connection.hashCode());
+                Assertions.assertTrue(connection.toString().startsWith("Pooled"));
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new PooledDataSource(simple, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new PooledDataSource(simple, 1, Duration.ofSeconds(-1),
+                        Duration.ZERO, 1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new PooledDataSource(simple, 1, Duration.ZERO,
+                        Duration.ofSeconds(-1), 1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new PooledDataSource(simple, 1, Duration.ZERO,
+                        Duration.ZERO, -1));
+    }
+
+    /**
+     * Data source recording the physical connections it opens.
+     */
+    private static DataSource recording(final DataSource dataSource,
+                                        final List<Connection> physicals) {
+        return (DataSource) Proxy.newProxyInstance(
+                DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (ds, method, args) -> {
+                    Object result = method.invoke(dataSource, args);
+                    if (result instanceof Connection connection) {
+                        physicals.add(connection);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Connections that fail validation and closing, with statements that
+     * fail closing.
+     */
+    private static DataSource failing(final DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(
+                DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (ds, dsMethod, dsArgs) -> {
+                    Connection connection = dataSource.getConnection();
+                    return Proxy.newProxyInstance(
+                            Connection.class.getClassLoader(),
+                            new Class<?>[]{Connection.class},
+                            (c, method, args) -> switch (method.getName()) {
+                                case "isValid" -> throw new SQLException(
+                                        "Validation failed");
+                                case "close" -> {
+                                    connection.close();
+                                    throw new SQLException("Close failed");
+                                }
+                                case "createStatement" -> Proxy
+                                        .newProxyInstance(
+                                        Statement.class.getClassLoader(),
+                                        new Class<?>[]{Statement.class},
+                                        (s, sMethod, sArgs) -> {
+                                            throw new SQLException(
+                                                    "Close failed");
+                                        });
+                                default -> method.invoke(connection, args);
+                            });
+                });
+    }
+
+    private static String show(final Connection connection,
+                               final String setting) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("show " + setting)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static int select(final Connection connection, final int value)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT)) {
+            statement.setInt(1, value);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.model.Event;
+import com.gurukulams.event.util.TestUtil;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.gurukulams.event.util.TestUtil.getDataSource;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class StartWheelTest {
+
+    private static final String USERNAME = "hari";
+
+    private final EventService eventService;
+
+    StartWheelTest() {
+        this.eventService = new EventService(getDataSource(),
+                TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @BeforeEach
+    void before() throws SQLException {
+        eventService.delete();
+    }
+
+    @AfterEach
+    void after() throws SQLException {
+        eventService.delete();
+        eventService.close();
+    }
+
+    @Test
+    void startingWithin() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        // Created before the wheel is loaded
+        Event soon = create(now.plusMinutes(5));
+        Event later = create(now.plusHours(2));
+
+        StartWheel wheel = eventService.startWheel();
+        Assertions.assertSame(wheel, eventService.startWheel());
+        Event tomorrow = create(now.plusDays(1));
+
+        Assertions.assertEquals(List.of(soon.id()),
+                wheel.startingWithin(Duration.ofMinutes(10)));
+        Assertions.assertEquals(List.of(soon.id(), later.id()),
+                wheel.startingWithin(Duration.ofHours(3)));
+        Assertions.assertEquals(List.of(soon.id(), later.id(), tomorrow.id()),
+                wheel.startingWithin(Duration.ofDays(2)));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                wheel.startingWithin(Duration.ofMinutes(-1)));
+
+        // Moved and deleted
+        eventService.update(later.id(), USERNAME, null,
+                later.withEventDate(now.plusDays(3)));
+        Assertions.assertEquals(List.of(soon.id()),
+                wheel.startingWithin(Duration.ofHours(3)));
+        eventService.delete(USERNAME, soon.id());
+        Assertions.assertEquals(List.of(),
+                wheel.startingWithin(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void close() throws SQLException {
+        StartWheel wheel = eventService.startWheel();
+        eventService.close();
+        eventService.close();
+        Assertions.assertSame(wheel, eventService.startWheel());
+
+        // Closed wheel is still kept current
+        Event soon = create(LocalDateTime.now().plusMinutes(5));
+        Assertions.assertEquals(List.of(soon.id()),
+                wheel.startingWithin(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void subscribe() throws Exception {
+        StartWheel wheel = eventService.startWheel();
+        List<UUID> opened = new CopyOnWriteArrayList<>();
+        AutoCloseable failing = wheel.subscribe(id -> {
+            throw new IllegalStateException("Subscriber failure");
+        });
+        AutoCloseable subscription = wheel.subscribe(opened::add);
+
+        LocalDateTime now = LocalDateTime.now();
+        Event event = create(now.plusHours(2));
+        Event later = create(now.plusDays(3));
+        // Window already open, told on the next turn
+        Event soon = create(now.plusMinutes(5));
+        wheel.turn(LocalDateTime.now());
+        Assertions.assertEquals(List.of(soon.id()), opened);
+
+        wheel.turn(now.plusHours(1));
+        Assertions.assertEquals(List.of(soon.id()), opened);
+        wheel.turn(now.plusHours(2).minusMinutes(9));
+        Assertions.assertEquals(List.of(soon.id(), event.id()), opened);
+        // Started ones are dropped
+        Assertions.assertEquals(List.of(event.id()),
+                wheel.startingWithin(Duration.ofMinutes(10)));
+
+        failing.close();
+        subscription.close();
+        wheel.turn(now.plusDays(3));
+        Assertions.assertEquals(List.of(later.id()),
+                wheel.startingWithin(Duration.ofMinutes(10)));
+        Assertions.assertEquals(2, opened.size(), "Unsubscribed");
+    }
+
+    private Event create(final LocalDateTime eventDate) throws SQLException {
+        return eventService.create(List.of(), List.of(), USERNAME, null,
+                new Event(UUID.randomUUID(), "HariEvent", "HariDescription", eventDate,
+                        null, null, null, null));
+    }
+}
@@ -0,0 +1,142 @@
+package com.gurukulams.event.service;
+
+import com.gurukulams.event.model.Event;
+import com.gurukulams.event.util.TestUtil;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+
+import static com.gurukulams.event.util.TestUtil.getDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+class TracingDataSourceTest {
+
+    private static final String USERNAME_1 = "hari";
+
+    @Test
+    void normalize() {
+        Assertions.assertEquals(new TracingDataSource.Sql(
+                "select * from t1 where a = ? and b = ? and c = ? and d=?", 1),
+                TracingDataSource.normalize(" select  *\n from t1 where"
+                        + " a = 'x''y' and b = 42.5 and c = ? and d='' \n"));
+        Assertions.assertEquals(new TracingDataSource.Sql("select ?", 0),
+                TracingDataSource.normalize("select 'unterminated"));
+        Assertions.assertEquals(new TracingDataSource.Sql("? + v_2", 0),
+                TracingDataSource.normalize("1 + v_2"));
+    }
+
+    @Test
+    void trace() throws SQLException {
+        TracingDataSource dataSource = new TracingDataSource(getDataSource(),
+                Duration.ZERO);
+        EventService eventService = new EventService(dataSource,
+                TestUtil.dataManager(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        eventService.delete();
+        dataSource.reset();
+
+        for (int i = 0; i < 2; i++) {
+            Event event = eventService.create(List.of("c1"), List.of("t1"),
+                    USERNAME_1, null, new Event(UUID.randomUUID(),
+                            "HariEvent", "HariDescription",
+                            LocalDateTime.now().plusDays(2),
+                            null, null, null, null));
+            eventService.delete(USERNAME_1, event.id());
+        }
+        List<TracingDataSource.StatementStats> statistics =
+                dataSource.statistics();
+        TracingDataSource.StatementStats deletes = statistics.stream()
+                .filter(stats -> stats.sql().startsWith(
+                        "with events_meeting_deleted as (delete from"))
+                .findFirst().orElseThrow();
+        Assertions.assertEquals(2, deletes.count(),
+                "Bound ids are grouped as one");
+        Assertions.assertEquals(Set.of("delete"), deletes.methods());
+        Assertions.assertTrue(deletes.rows() >= 2);
+        Assertions.assertTrue(deletes.maxNanos() <= deletes.totalNanos());
+        Assertions.assertTrue(statistics.stream().anyMatch(stats
+                -> stats.methods().contains("create") && stats.rows() == 2));
+        Assertions.assertTrue(statistics.get(0).totalNanos()
+                >= statistics.get(statistics.size() - 1).totalNanos());
+
+        dataSource.reset();
+        Assertions.assertTrue(dataSource.statistics().isEmpty());
+    }
+
+    @Test
+    void statements() throws SQLException {
+        TracingDataSource dataSource = new TracingDataSource(getDataSource(),
+                Duration.ofMinutes(1));
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            Assertions.assertTrue(statement.execute("select 1 union select 2"));
+            try (ResultSet resultSet = statement.getResultSet()) {
+                while (resultSet.next()) {
+                    Assertions.assertTrue(resultSet.getInt(1) > 0);
+                }
+            }
+            statement.addBatch("select 1");
+            statement.clearBatch();
+            statement.addBatch("delete from events where title = 'none'");
+            statement.executeBatch();
+            Assertions.assertTrue(connection.isWrapperFor(Connection.class));
+        }
+        List<TracingDataSource.StatementStats> statistics =
+                dataSource.statistics();
+        Assertions.assertEquals(2, statistics.size());
+        TracingDataSource.StatementStats select = statistics.stream()
+                .filter(stats -> stats.sql().equals("select ? union select ?"))
+                .findFirst().orElseThrow();
+        Assertions.assertEquals(2, select.rows());
+        Assertions.assertEquals(Set.of("-"), select.methods());
+        Assertions.assertTrue(statistics.stream().anyMatch(stats
+                -> stats.sql().equals("delete from events where title = ?")));
+    }
+
+    @Test
+    void dataSource() throws SQLException {
+        DataSource simple = getDataSource();
+        TracingDataSource dataSource = new TracingDataSource(simple,
+                Duration.ZERO);
+        try (Connection connection = dataSource.getConnection("tom",
+                "password")) {
+            Assertions.assertTrue(connection.isValid(1));
+        }
+        dataSource.setLoginTimeout(5);
+        Assertions.assertEquals(5, dataSource.getLoginTimeout());
+        dataSource.setLogWriter(null);
+        Assertions.assertNull(dataSource.getLogWriter());
+        Assertions.assertThrows(java.sql.SQLFeatureNotSupportedException.class,
+                dataSource::getParentLogger);
+        Assertions.assertSame(dataSource,
+                dataSource.unwrap(TracingDataSource.class));
+        Assertions.assertSame(simple, dataSource.unwrap(simple.getClass()));
+        Assertions.assertTrue(dataSource.isWrapperFor(DataSource.class));
+        Assertions.assertTrue(dataSource.isWrapperFor(simple.getClass()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TracingDataSource(simple, Duration.ofSeconds(-1)));
+
+        try (PooledDataSource pool = new PooledDataSource(dataSource, 1)) {
+            Assertions.assertTrue(TracingDataSource.isTraced(pool));
+        }
+        Assertions.assertFalse(TracingDataSource.isTraced(simple));
+        DataSource unknown = (DataSource) Proxy.newProxyInstance(
+                DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (ds, method, args) -> {
+                    throw new SQLException("Not a wrapper");
+                });
+        Assertions.assertTrue(TracingDataSource.isTraced(unknown));
+    }
+}